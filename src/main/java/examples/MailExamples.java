@@ -19,10 +19,13 @@ package examples;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.docgen.Source;
 import io.vertx.ext.auth.authentication.UsernamePasswordCredentials;
 import io.vertx.ext.mail.*;
 
+import java.util.Arrays;
+
 /**
  * code chunks for the adoc documentation
  *
@@ -115,4 +118,19 @@ public class MailExamples {
       .onSuccess(System.out::println)
       .onFailure(Throwable::printStackTrace);
   }
+
+  public void sender(ReadStream<MailMessage> messages, MailClient mailClient) {
+    MailSender sender = mailClient.sender()
+      .setWriteQueueMaxSize(32)
+      .setWriteQueueMaxBytes(64 * 1024 * 1024);
+    messages.pipeTo(sender)
+      .onSuccess(v -> System.out.println("all mails sent"))
+      .onFailure(Throwable::printStackTrace);
+  }
+
+  public void sendRaw(Buffer message, MailClient mailClient) {
+    mailClient.sendRaw("bounce@example.com", Arrays.asList("user@example.com"), message)
+      .onSuccess(System.out::println)
+      .onFailure(Throwable::printStackTrace);
+  }
 }
@@ -19,8 +19,12 @@ package io.vertx.ext.mail;
 import io.vertx.codegen.annotations.VertxGen;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.mail.impl.MailClientBuilderImpl;
+import io.vertx.ext.mail.impl.MailSenderImpl;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -90,6 +94,45 @@ public interface MailClient {
    */
   Future<MailResult> sendMail(MailMessage email);
 
+  /**
+   * Send a message already formatted by the caller, its headers and body are sent as is.
+   * <p>
+   * The lines of the message starting with a '.' are dot-stuffed and its bare LF line terminators are converted to
+   * CRLF while it is written to the socket, the message is signed when DKIM is enabled.
+   *
+   * @param from        the envelope sender address, used in the MAIL FROM command
+   * @param recipients  the envelope recipient addresses, used in the RCPT TO commands
+   * @param message     the message, headers and body
+   * @return a future notified when the operation is finished or it fails
+   */
+  Future<MailResult> sendRaw(String from, List<String> recipients, Buffer message);
+
+  /**
+   * Like {@link #sendRaw(String, List, Buffer)} with a message read from a stream, which is written to the socket
+   * as it is read.
+   * <p>
+   * The stream is read only once, so the message is not sent again when it fails with a transient error, nor to the
+   * recipients over the limit of a transaction, and it cannot be signed with DKIM.
+   *
+   * @param from        the envelope sender address, used in the MAIL FROM command
+   * @param recipients  the envelope recipient addresses, used in the RCPT TO commands
+   * @param message     the stream of the message, headers and body
+   * @return a future notified when the operation is finished or it fails
+   */
+  Future<MailResult> sendRawStream(String from, List<String> recipients, ReadStream<Buffer> message);
+
+  /**
+   * Create a {@link MailSender} which sends the mails written to it with this client, with a bounded count and size
+   * of mails in flight.
+   * <p>
+   * It can be used as the destination of {@link io.vertx.core.streams.ReadStream#pipeTo}.
+   *
+   * @return the mail sender
+   */
+  default MailSender sender() {
+    return new MailSenderImpl(this);
+  }
+
   /**
    * Close the MailClient
    */
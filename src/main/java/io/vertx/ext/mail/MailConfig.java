@@ -26,6 +26,7 @@ import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.ProxyOptions;
 import io.vertx.core.net.SSLEngineOptions;
 import io.vertx.core.net.TrustOptions;
+import io.vertx.core.tracing.TracingPolicy;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -67,6 +68,92 @@ public class MailConfig extends NetClientOptions {
   public static final int DEFAULT_KEEP_ALIVE_TIMEOUT = 300;
   public static final TimeUnit DEFAULT_KEEP_ALIVE_TIMEOUT_UNIT = TimeUnit.SECONDS;
 
+  /**
+   * The default interval of the NOOP commands sent on idle connections = 0, no NOOP commands are sent
+   */
+  public static final int DEFAULT_IDLE_NOOP_INTERVAL = 0;
+  public static final TimeUnit DEFAULT_IDLE_NOOP_INTERVAL_UNIT = TimeUnit.SECONDS;
+
+  /**
+   * The default max estimated size of the mails in flight = 0, the size is not limited
+   */
+  public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 0L;
+  public static final boolean DEFAULT_FAIL_FAST_ON_MAX_IN_FLIGHT_BYTES = false;
+
+  /**
+   * The default max attempts to send a mail = 1, the mails are not retried
+   */
+  public static final int DEFAULT_MAX_SEND_ATTEMPTS = 1;
+
+  /**
+   * The default delays between the attempts to send a mail: 1 second, doubled after each attempt up to 1 minute,
+   * without deadline
+   */
+  public static final int DEFAULT_RETRY_INITIAL_DELAY = 1000;
+  public static final int DEFAULT_RETRY_MAX_DELAY = 60_000;
+  public static final int DEFAULT_RETRY_DEADLINE = 0;
+  public static final TimeUnit DEFAULT_RETRY_DELAY_UNIT = TimeUnit.MILLISECONDS;
+
+  /**
+   * The default circuit breaker settings: disabled, over a window of 20 connections, open for 30 seconds
+   */
+  public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 0;
+  public static final int DEFAULT_CIRCUIT_BREAKER_ERROR_RATE = 0;
+  public static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+  public static final int DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT = 30;
+  public static final TimeUnit DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT_UNIT = TimeUnit.SECONDS;
+
+  /**
+   * The default rate limits = 0, the messages, recipients and bytes sent per second are not limited
+   */
+  public static final int DEFAULT_MAX_MESSAGES_PER_SECOND = 0;
+  public static final int DEFAULT_MAX_RECIPIENTS_PER_SECOND = 0;
+  public static final long DEFAULT_MAX_BYTES_PER_SECOND = 0L;
+
+  /**
+   * The default adaptive concurrency settings: disabled, transactions slower than 10 seconds decrease the limit
+   */
+  public static final boolean DEFAULT_ADAPTIVE_CONCURRENCY = false;
+  public static final int DEFAULT_ADAPTIVE_CONCURRENCY_MAX_LATENCY = 10_000;
+
+  /**
+   * The default max recipients per mail transaction = 0, not limited
+   */
+  public static final int DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION = 0;
+
+  /**
+   * The default tracing policy = PROPAGATE, a send is traced when it is part of a trace
+   */
+  public static final TracingPolicy DEFAULT_TRACING_POLICY = TracingPolicy.PROPAGATE;
+
+  /**
+   * The default LMTP mode = false, the client speaks SMTP
+   */
+  public static final boolean DEFAULT_LMTP = false;
+
+  /**
+   * The default interval between the syncs of the spool to the disk = 10 ms
+   */
+  public static final int DEFAULT_SPOOL_SYNC_INTERVAL = 10;
+
+  /**
+   * The default size of the segment files of the spool = 64 MB
+   */
+  public static final long DEFAULT_SPOOL_SEGMENT_SIZE = 64 * 1024 * 1024;
+  public static final int DEFAULT_SPOOL_MAX_REPLAYS = 5;
+
+  /**
+   * The default timeouts waiting for a reply of the SMTP server, following RFC 5321 section 4.5.3.2:
+   * 5 minutes for the greeting, EHLO, AUTH and envelope commands, 10 minutes for the end of data.
+   */
+  public static final int DEFAULT_GREETING_TIMEOUT = 300;
+  public static final int DEFAULT_EHLO_TIMEOUT = 300;
+  public static final int DEFAULT_AUTH_TIMEOUT = 300;
+  public static final int DEFAULT_ENVELOPE_TIMEOUT = 300;
+  public static final int DEFAULT_END_OF_DATA_TIMEOUT = 600;
+  public static final int DEFAULT_DATA_BLOCK_TIMEOUT = 180;
+  public static final TimeUnit DEFAULT_REPLY_TIMEOUT_UNIT = TimeUnit.SECONDS;
+
   private String hostname = DEFAULT_HOST;
   private int port = DEFAULT_PORT;
   private StartTLSOptions starttls = DEFAULT_TLS;
@@ -91,6 +178,40 @@ public class MailConfig extends NetClientOptions {
   private String ntDomain;
   private String workstation;
   private long maxMailsPerConnection = DEFAULT_MAILS_PER_CONNECTION;
+  private int greetingTimeout = DEFAULT_GREETING_TIMEOUT;
+  private int ehloTimeout = DEFAULT_EHLO_TIMEOUT;
+  private int authTimeout = DEFAULT_AUTH_TIMEOUT;
+  private int envelopeTimeout = DEFAULT_ENVELOPE_TIMEOUT;
+  private int endOfDataTimeout = DEFAULT_END_OF_DATA_TIMEOUT;
+  private int dataBlockTimeout = DEFAULT_DATA_BLOCK_TIMEOUT;
+  private TimeUnit replyTimeoutUnit = DEFAULT_REPLY_TIMEOUT_UNIT;
+  private int idleNoopInterval = DEFAULT_IDLE_NOOP_INTERVAL;
+  private TimeUnit idleNoopIntervalUnit = DEFAULT_IDLE_NOOP_INTERVAL_UNIT;
+  private long maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
+  private boolean failFastOnMaxInFlightBytes = DEFAULT_FAIL_FAST_ON_MAX_IN_FLIGHT_BYTES;
+  private int maxSendAttempts = DEFAULT_MAX_SEND_ATTEMPTS;
+  private int retryInitialDelay = DEFAULT_RETRY_INITIAL_DELAY;
+  private int retryMaxDelay = DEFAULT_RETRY_MAX_DELAY;
+  private int retryDeadline = DEFAULT_RETRY_DEADLINE;
+  private TimeUnit retryDelayUnit = DEFAULT_RETRY_DELAY_UNIT;
+  private int circuitBreakerFailureThreshold = DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+  private int circuitBreakerErrorRate = DEFAULT_CIRCUIT_BREAKER_ERROR_RATE;
+  private int circuitBreakerWindowSize = DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE;
+  private int circuitBreakerResetTimeout = DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT;
+  private TimeUnit circuitBreakerResetTimeoutUnit = DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT_UNIT;
+  private int maxMessagesPerSecond = DEFAULT_MAX_MESSAGES_PER_SECOND;
+  private int maxRecipientsPerSecond = DEFAULT_MAX_RECIPIENTS_PER_SECOND;
+  private long maxBytesPerSecond = DEFAULT_MAX_BYTES_PER_SECOND;
+  private boolean adaptiveConcurrency = DEFAULT_ADAPTIVE_CONCURRENCY;
+  private int adaptiveConcurrencyMaxLatency = DEFAULT_ADAPTIVE_CONCURRENCY_MAX_LATENCY;
+  private int maxRecipientsPerTransaction = DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION;
+  private TracingPolicy tracingPolicy = DEFAULT_TRACING_POLICY;
+  private String domainSocketPath;
+  private boolean lmtp = DEFAULT_LMTP;
+  private String spoolPath;
+  private int spoolSyncInterval = DEFAULT_SPOOL_SYNC_INTERVAL;
+  private long spoolSegmentSize = DEFAULT_SPOOL_SEGMENT_SIZE;
+  private int spoolMaxReplays = DEFAULT_SPOOL_MAX_REPLAYS;
 
   // https://tools.ietf.org/html/rfc5322#section-3.2.3, atext
   private static final Pattern A_TEXT_PATTERN = Pattern.compile("[a-zA-Z0-9!#$%&'*+-/=?^_`{|}~ ]+");
@@ -171,6 +292,40 @@ public class MailConfig extends NetClientOptions {
     ntDomain = other.ntDomain;
     workstation = other.workstation;
     maxMailsPerConnection = other.maxMailsPerConnection;
+    greetingTimeout = other.greetingTimeout;
+    ehloTimeout = other.ehloTimeout;
+    authTimeout = other.authTimeout;
+    envelopeTimeout = other.envelopeTimeout;
+    endOfDataTimeout = other.endOfDataTimeout;
+    dataBlockTimeout = other.dataBlockTimeout;
+    replyTimeoutUnit = other.replyTimeoutUnit;
+    idleNoopInterval = other.idleNoopInterval;
+    idleNoopIntervalUnit = other.idleNoopIntervalUnit;
+    maxInFlightBytes = other.maxInFlightBytes;
+    failFastOnMaxInFlightBytes = other.failFastOnMaxInFlightBytes;
+    maxSendAttempts = other.maxSendAttempts;
+    retryInitialDelay = other.retryInitialDelay;
+    retryMaxDelay = other.retryMaxDelay;
+    retryDeadline = other.retryDeadline;
+    retryDelayUnit = other.retryDelayUnit;
+    circuitBreakerFailureThreshold = other.circuitBreakerFailureThreshold;
+    circuitBreakerErrorRate = other.circuitBreakerErrorRate;
+    circuitBreakerWindowSize = other.circuitBreakerWindowSize;
+    circuitBreakerResetTimeout = other.circuitBreakerResetTimeout;
+    circuitBreakerResetTimeoutUnit = other.circuitBreakerResetTimeoutUnit;
+    maxMessagesPerSecond = other.maxMessagesPerSecond;
+    maxRecipientsPerSecond = other.maxRecipientsPerSecond;
+    maxBytesPerSecond = other.maxBytesPerSecond;
+    adaptiveConcurrency = other.adaptiveConcurrency;
+    adaptiveConcurrencyMaxLatency = other.adaptiveConcurrencyMaxLatency;
+    maxRecipientsPerTransaction = other.maxRecipientsPerTransaction;
+    tracingPolicy = other.tracingPolicy;
+    domainSocketPath = other.domainSocketPath;
+    lmtp = other.lmtp;
+    spoolPath = other.spoolPath;
+    spoolSyncInterval = other.spoolSyncInterval;
+    spoolSegmentSize = other.spoolSegmentSize;
+    spoolMaxReplays = other.spoolMaxReplays;
   }
 
   /**
@@ -243,6 +398,65 @@ public class MailConfig extends NetClientOptions {
     ntDomain = config.getString("ntDomain");
     workstation = config.getString("workstation");
     maxMailsPerConnection = config.getLong("maxMailsPerConnection", DEFAULT_MAILS_PER_CONNECTION);
+    greetingTimeout = config.getInteger("greetingTimeout", DEFAULT_GREETING_TIMEOUT);
+    ehloTimeout = config.getInteger("ehloTimeout", DEFAULT_EHLO_TIMEOUT);
+    authTimeout = config.getInteger("authTimeout", DEFAULT_AUTH_TIMEOUT);
+    envelopeTimeout = config.getInteger("envelopeTimeout", DEFAULT_ENVELOPE_TIMEOUT);
+    endOfDataTimeout = config.getInteger("endOfDataTimeout", DEFAULT_END_OF_DATA_TIMEOUT);
+    dataBlockTimeout = config.getInteger("dataBlockTimeout", DEFAULT_DATA_BLOCK_TIMEOUT);
+    Object replyTU = config.getValue("replyTimeoutUnit");
+    if (replyTU instanceof String) {
+      replyTimeoutUnit = TimeUnit.valueOf((String)replyTU);
+    } else {
+      replyTimeoutUnit = DEFAULT_REPLY_TIMEOUT_UNIT;
+    }
+    idleNoopInterval = config.getInteger("idleNoopInterval", DEFAULT_IDLE_NOOP_INTERVAL);
+    Object idleNoopTU = config.getValue("idleNoopIntervalUnit");
+    if (idleNoopTU instanceof String) {
+      idleNoopIntervalUnit = TimeUnit.valueOf((String)idleNoopTU);
+    } else {
+      idleNoopIntervalUnit = DEFAULT_IDLE_NOOP_INTERVAL_UNIT;
+    }
+    maxInFlightBytes = config.getLong("maxInFlightBytes", DEFAULT_MAX_IN_FLIGHT_BYTES);
+    failFastOnMaxInFlightBytes = config.getBoolean("failFastOnMaxInFlightBytes", DEFAULT_FAIL_FAST_ON_MAX_IN_FLIGHT_BYTES);
+    maxSendAttempts = config.getInteger("maxSendAttempts", DEFAULT_MAX_SEND_ATTEMPTS);
+    retryInitialDelay = config.getInteger("retryInitialDelay", DEFAULT_RETRY_INITIAL_DELAY);
+    retryMaxDelay = config.getInteger("retryMaxDelay", DEFAULT_RETRY_MAX_DELAY);
+    retryDeadline = config.getInteger("retryDeadline", DEFAULT_RETRY_DEADLINE);
+    Object retryTU = config.getValue("retryDelayUnit");
+    if (retryTU instanceof String) {
+      retryDelayUnit = TimeUnit.valueOf((String)retryTU);
+    } else {
+      retryDelayUnit = DEFAULT_RETRY_DELAY_UNIT;
+    }
+    circuitBreakerFailureThreshold = config.getInteger("circuitBreakerFailureThreshold", DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+    circuitBreakerErrorRate = config.getInteger("circuitBreakerErrorRate", DEFAULT_CIRCUIT_BREAKER_ERROR_RATE);
+    circuitBreakerWindowSize = config.getInteger("circuitBreakerWindowSize", DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE);
+    circuitBreakerResetTimeout = config.getInteger("circuitBreakerResetTimeout", DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT);
+    Object circuitTU = config.getValue("circuitBreakerResetTimeoutUnit");
+    if (circuitTU instanceof String) {
+      circuitBreakerResetTimeoutUnit = TimeUnit.valueOf((String)circuitTU);
+    } else {
+      circuitBreakerResetTimeoutUnit = DEFAULT_CIRCUIT_BREAKER_RESET_TIMEOUT_UNIT;
+    }
+    maxMessagesPerSecond = config.getInteger("maxMessagesPerSecond", DEFAULT_MAX_MESSAGES_PER_SECOND);
+    maxRecipientsPerSecond = config.getInteger("maxRecipientsPerSecond", DEFAULT_MAX_RECIPIENTS_PER_SECOND);
+    maxBytesPerSecond = config.getLong("maxBytesPerSecond", DEFAULT_MAX_BYTES_PER_SECOND);
+    adaptiveConcurrency = config.getBoolean("adaptiveConcurrency", DEFAULT_ADAPTIVE_CONCURRENCY);
+    adaptiveConcurrencyMaxLatency = config.getInteger("adaptiveConcurrencyMaxLatency", DEFAULT_ADAPTIVE_CONCURRENCY_MAX_LATENCY);
+    maxRecipientsPerTransaction = config.getInteger("maxRecipientsPerTransaction", DEFAULT_MAX_RECIPIENTS_PER_TRANSACTION);
+    String tracingPolicyOption = config.getString("tracingPolicy");
+    if (tracingPolicyOption != null) {
+      tracingPolicy = TracingPolicy.valueOf(tracingPolicyOption.toUpperCase(Locale.ENGLISH));
+    } else {
+      tracingPolicy = DEFAULT_TRACING_POLICY;
+    }
+    domainSocketPath = config.getString("domainSocketPath");
+    lmtp = config.getBoolean("lmtp", DEFAULT_LMTP);
+    spoolPath = config.getString("spoolPath");
+    spoolSyncInterval = config.getInteger("spoolSyncInterval", DEFAULT_SPOOL_SYNC_INTERVAL);
+    spoolSegmentSize = config.getLong("spoolSegmentSize", DEFAULT_SPOOL_SEGMENT_SIZE);
+    spoolMaxReplays = config.getInteger("spoolMaxReplays", DEFAULT_SPOOL_MAX_REPLAYS);
   }
 
   public MailConfig setSendBufferSize(int sendBufferSize) {
@@ -1020,6 +1234,817 @@ public class MailConfig extends NetClientOptions {
     return maxMailsPerConnection;
   }
 
+  /**
+   * @return the timeout waiting for the greeting of the SMTP server, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getGreetingTimeout() {
+    return greetingTimeout;
+  }
+
+  /**
+   * Set the timeout waiting for the greeting of the SMTP server after the connection has been opened, Defaults to
+   * 5 minutes.
+   * <p/>
+   * When a reply timeout elapses, the connection is closed and the operation fails with a {@link SMTPTimeoutException}.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param greetingTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setGreetingTimeout(int greetingTimeout) {
+    if (greetingTimeout < 0) {
+      throw new IllegalArgumentException("greetingTimeout must be >= 0");
+    }
+    this.greetingTimeout = greetingTimeout;
+    return this;
+  }
+
+  /**
+   * @return the timeout waiting for the reply to the EHLO, HELO and STARTTLS commands, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getEhloTimeout() {
+    return ehloTimeout;
+  }
+
+  /**
+   * Set the timeout waiting for the reply to the EHLO, HELO and STARTTLS commands, Defaults to 5 minutes.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param ehloTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setEhloTimeout(int ehloTimeout) {
+    if (ehloTimeout < 0) {
+      throw new IllegalArgumentException("ehloTimeout must be >= 0");
+    }
+    this.ehloTimeout = ehloTimeout;
+    return this;
+  }
+
+  /**
+   * @return the timeout waiting for the replies during the authentication, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getAuthTimeout() {
+    return authTimeout;
+  }
+
+  /**
+   * Set the timeout waiting for each reply during the authentication, Defaults to 5 minutes.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param authTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setAuthTimeout(int authTimeout) {
+    if (authTimeout < 0) {
+      throw new IllegalArgumentException("authTimeout must be >= 0");
+    }
+    this.authTimeout = authTimeout;
+    return this;
+  }
+
+  /**
+   * @return the timeout waiting for the reply to the MAIL, RCPT, DATA and RSET commands, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getEnvelopeTimeout() {
+    return envelopeTimeout;
+  }
+
+  /**
+   * Set the timeout waiting for the reply to the MAIL, RCPT, DATA and RSET commands, Defaults to 5 minutes.
+   * <p/>
+   * When the commands are pipelined, the timeout applies to the whole group of replies.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param envelopeTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setEnvelopeTimeout(int envelopeTimeout) {
+    if (envelopeTimeout < 0) {
+      throw new IllegalArgumentException("envelopeTimeout must be >= 0");
+    }
+    this.envelopeTimeout = envelopeTimeout;
+    return this;
+  }
+
+  /**
+   * @return the timeout waiting for the reply to the end of the mail data, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getEndOfDataTimeout() {
+    return endOfDataTimeout;
+  }
+
+  /**
+   * Set the timeout waiting for the reply to the end of the mail data, Defaults to 10 minutes.
+   * <p/>
+   * The timeout starts when the last chunk of the mail data has been written.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param endOfDataTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setEndOfDataTimeout(int endOfDataTimeout) {
+    if (endOfDataTimeout < 0) {
+      throw new IllegalArgumentException("endOfDataTimeout must be >= 0");
+    }
+    this.endOfDataTimeout = endOfDataTimeout;
+    return this;
+  }
+
+  /**
+   * @return the timeout writing a chunk of the mail data, in {@link #getReplyTimeoutUnit()}
+   */
+  public int getDataBlockTimeout() {
+    return dataBlockTimeout;
+  }
+
+  /**
+   * Set the timeout writing a chunk of the mail data, Defaults to 3 minutes, following RFC 5321 section 4.5.3.2.5.
+   * <p/>
+   * A server which stops reading the mail data fills the write queue of the connection, the mail then fails with a
+   * {@link SMTPTimeoutException} and the connection is closed, instead of holding its slot of the pool forever.
+   * <p/>
+   * A timeout of {@code 0} means there is no timeout.
+   *
+   * @param dataBlockTimeout the timeout, in {@link #getReplyTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setDataBlockTimeout(int dataBlockTimeout) {
+    if (dataBlockTimeout < 0) {
+      throw new IllegalArgumentException("dataBlockTimeout must be >= 0");
+    }
+    this.dataBlockTimeout = dataBlockTimeout;
+    return this;
+  }
+
+  /**
+   * Gets the {@code TimeUnit} of the reply timeouts. Defaults to {@link TimeUnit#SECONDS}
+   *
+   * @return the {@code TimeUnit} of the reply timeouts
+   */
+  public TimeUnit getReplyTimeoutUnit() {
+    return replyTimeoutUnit;
+  }
+
+  /**
+   * Sets the {@code TimeUnit} of the reply timeouts.
+   *
+   * @param replyTimeoutUnit the {@code TimeUnit} of the reply timeouts
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setReplyTimeoutUnit(TimeUnit replyTimeoutUnit) {
+    this.replyTimeoutUnit = replyTimeoutUnit;
+    return this;
+  }
+
+  /**
+   * @return the interval of the NOOP commands sent on idle connections, in {@link #getIdleNoopIntervalUnit()}
+   */
+  public int getIdleNoopInterval() {
+    return idleNoopInterval;
+  }
+
+  /**
+   * Set the interval of the NOOP commands sent on the connections idle in the pool, in {@link #getIdleNoopIntervalUnit()}.
+   * <p/>
+   * Many SMTP servers close sessions idle for a while, the NOOP commands keep the connections alive and detect the
+   * connections closed by the server, which are removed from the pool before they are used to send a mail.
+   * The idle connections are checked by the pool cleaner, see {@link #setPoolCleanerPeriod(int)}.
+   * <p/>
+   * An interval of {@code 0} means no NOOP commands are sent.
+   *
+   * @param idleNoopInterval the interval, in {@link #getIdleNoopIntervalUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setIdleNoopInterval(int idleNoopInterval) {
+    if (idleNoopInterval < 0) {
+      throw new IllegalArgumentException("idleNoopInterval must be >= 0");
+    }
+    this.idleNoopInterval = idleNoopInterval;
+    return this;
+  }
+
+  /**
+   * Gets the {@code TimeUnit} of the interval of the NOOP commands sent on idle connections. Defaults to
+   * {@link TimeUnit#SECONDS}
+   *
+   * @return the {@code TimeUnit} of the interval of the NOOP commands
+   */
+  public TimeUnit getIdleNoopIntervalUnit() {
+    return idleNoopIntervalUnit;
+  }
+
+  /**
+   * Sets the {@code TimeUnit} of the interval of the NOOP commands sent on idle connections.
+   *
+   * @param idleNoopIntervalUnit the {@code TimeUnit} of the interval of the NOOP commands
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setIdleNoopIntervalUnit(TimeUnit idleNoopIntervalUnit) {
+    this.idleNoopIntervalUnit = idleNoopIntervalUnit;
+    return this;
+  }
+
+  /**
+   * @return the max estimated size of the mails in flight, in bytes
+   */
+  public long getMaxInFlightBytes() {
+    return maxInFlightBytes;
+  }
+
+  /**
+   * Set the max estimated size of the mails in flight in the connection pool, shared by the clients using the same
+   * pool.
+   * <p/>
+   * The size of a mail is estimated from its text, html and attachments before it is encoded, a mail exceeding the
+   * budget waits for the mails in flight to be sent, or fails if {@link #setFailFastOnMaxInFlightBytes(boolean)} is set.
+   * A mail larger than the whole budget is sent once no other mail is in flight.
+   * <p/>
+   * A size of {@code 0} means the size is not limited.
+   *
+   * @param maxInFlightBytes the max size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxInFlightBytes(long maxInFlightBytes) {
+    if (maxInFlightBytes < 0) {
+      throw new IllegalArgumentException("maxInFlightBytes must be >= 0");
+    }
+    this.maxInFlightBytes = maxInFlightBytes;
+    return this;
+  }
+
+  /**
+   * @return if a mail exceeding the max size of the mails in flight fails instead of waiting
+   */
+  public boolean isFailFastOnMaxInFlightBytes() {
+    return failFastOnMaxInFlightBytes;
+  }
+
+  /**
+   * Set if a mail exceeding the max size of the mails in flight fails immediately instead of waiting for the mails in
+   * flight to be sent, see {@link #setMaxInFlightBytes(long)}.
+   *
+   * @param failFastOnMaxInFlightBytes if the mail fails immediately
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setFailFastOnMaxInFlightBytes(boolean failFastOnMaxInFlightBytes) {
+    this.failFastOnMaxInFlightBytes = failFastOnMaxInFlightBytes;
+    return this;
+  }
+
+  /**
+   * @return the max attempts to send a mail
+   */
+  public int getMaxSendAttempts() {
+    return maxSendAttempts;
+  }
+
+  /**
+   * Set the max attempts to send a mail, Defaults to {@code 1}, the mails are not retried.
+   * <p/>
+   * A mail is sent again when it fails with a transient reply (4xx) of the SMTP server, a reply timeout or an
+   * I/O error, the mail is encoded and signed only once for all the attempts. The recipients refused with a permanent
+   * reply (5xx) are not retried, and when {@link #isAllowRcptErrors()} is set, a mail sent to part of its
+   * recipients is sent again to the recipients refused with a transient reply.
+   * <p/>
+   * The delay before the next attempt starts at {@link #getRetryInitialDelay()} and doubles after each attempt up to
+   * {@link #getRetryMaxDelay()}, with a random jitter of up to half the delay.
+   *
+   * @param maxSendAttempts the max attempts, including the first one
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxSendAttempts(int maxSendAttempts) {
+    if (maxSendAttempts < 1) {
+      throw new IllegalArgumentException("maxSendAttempts must be >= 1");
+    }
+    this.maxSendAttempts = maxSendAttempts;
+    return this;
+  }
+
+  /**
+   * @return the delay before the 2nd attempt to send a mail, in {@link #getRetryDelayUnit()}
+   */
+  public int getRetryInitialDelay() {
+    return retryInitialDelay;
+  }
+
+  /**
+   * Set the delay before the 2nd attempt to send a mail, Defaults to 1 second.
+   *
+   * @param retryInitialDelay the delay, in {@link #getRetryDelayUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setRetryInitialDelay(int retryInitialDelay) {
+    if (retryInitialDelay < 0) {
+      throw new IllegalArgumentException("retryInitialDelay must be >= 0");
+    }
+    this.retryInitialDelay = retryInitialDelay;
+    return this;
+  }
+
+  /**
+   * @return the max delay between the attempts to send a mail, in {@link #getRetryDelayUnit()}
+   */
+  public int getRetryMaxDelay() {
+    return retryMaxDelay;
+  }
+
+  /**
+   * Set the max delay between the attempts to send a mail, Defaults to 1 minute.
+   *
+   * @param retryMaxDelay the delay, in {@link #getRetryDelayUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setRetryMaxDelay(int retryMaxDelay) {
+    if (retryMaxDelay < 0) {
+      throw new IllegalArgumentException("retryMaxDelay must be >= 0");
+    }
+    this.retryMaxDelay = retryMaxDelay;
+    return this;
+  }
+
+  /**
+   * @return the time after which a mail is not retried anymore, in {@link #getRetryDelayUnit()}
+   */
+  public int getRetryDeadline() {
+    return retryDeadline;
+  }
+
+  /**
+   * Set the time, since the 1st attempt to send a mail, after which the mail is not retried anymore. An attempt is
+   * not started if it would start after the deadline.
+   * <p/>
+   * A deadline of {@code 0} means the attempts are only bounded by {@link #getMaxSendAttempts()}.
+   *
+   * @param retryDeadline the deadline, in {@link #getRetryDelayUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setRetryDeadline(int retryDeadline) {
+    if (retryDeadline < 0) {
+      throw new IllegalArgumentException("retryDeadline must be >= 0");
+    }
+    this.retryDeadline = retryDeadline;
+    return this;
+  }
+
+  /**
+   * @return the {@code TimeUnit} of the retry delays and deadline
+   */
+  public TimeUnit getRetryDelayUnit() {
+    return retryDelayUnit;
+  }
+
+  /**
+   * Sets the {@code TimeUnit} of the retry delays and deadline.
+   *
+   * @param retryDelayUnit the {@code TimeUnit} of the retry delays and deadline
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setRetryDelayUnit(TimeUnit retryDelayUnit) {
+    this.retryDelayUnit = retryDelayUnit;
+    return this;
+  }
+
+  /**
+   * @return the count of consecutive connection failures opening the circuit breaker
+   */
+  public int getCircuitBreakerFailureThreshold() {
+    return circuitBreakerFailureThreshold;
+  }
+
+  /**
+   * Set the count of consecutive connection failures opening the circuit breaker of the connection pool, Defaults to
+   * {@code 0}, the consecutive failures do not open the circuit breaker.
+   * <p/>
+   * A connection fails when the connect, the handshake with the SMTP server or the RSET of a pooled connection fails
+   * with a transient reply (4xx), a reply timeout or an I/O error. While the circuit breaker is open the mails fail
+   * immediately with a {@link SMTPCircuitOpenException}, until {@link #getCircuitBreakerResetTimeout()} elapses and
+   * a single connection is made to probe the SMTP server.
+   *
+   * @param circuitBreakerFailureThreshold the count of consecutive failures
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+    if (circuitBreakerFailureThreshold < 0) {
+      throw new IllegalArgumentException("circuitBreakerFailureThreshold must be >= 0");
+    }
+    this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    return this;
+  }
+
+  /**
+   * @return the percentage of failed connections opening the circuit breaker
+   */
+  public int getCircuitBreakerErrorRate() {
+    return circuitBreakerErrorRate;
+  }
+
+  /**
+   * Set the percentage of failed connections, among the last {@link #getCircuitBreakerWindowSize()} connections,
+   * opening the circuit breaker of the connection pool, Defaults to {@code 0}, the error rate does not open the
+   * circuit breaker.
+   *
+   * @param circuitBreakerErrorRate the percentage, between {@code 0} and {@code 100}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setCircuitBreakerErrorRate(int circuitBreakerErrorRate) {
+    if (circuitBreakerErrorRate < 0 || circuitBreakerErrorRate > 100) {
+      throw new IllegalArgumentException("circuitBreakerErrorRate must be between 0 and 100");
+    }
+    this.circuitBreakerErrorRate = circuitBreakerErrorRate;
+    return this;
+  }
+
+  /**
+   * @return the count of connections the error rate of the circuit breaker is computed on
+   */
+  public int getCircuitBreakerWindowSize() {
+    return circuitBreakerWindowSize;
+  }
+
+  /**
+   * Set the count of the last connections the error rate of the circuit breaker is computed on, Defaults to {@code 20}.
+   *
+   * @param circuitBreakerWindowSize the count of connections
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setCircuitBreakerWindowSize(int circuitBreakerWindowSize) {
+    if (circuitBreakerWindowSize < 1) {
+      throw new IllegalArgumentException("circuitBreakerWindowSize must be >= 1");
+    }
+    this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+    return this;
+  }
+
+  /**
+   * @return the time the circuit breaker stays open, in {@link #getCircuitBreakerResetTimeoutUnit()}
+   */
+  public int getCircuitBreakerResetTimeout() {
+    return circuitBreakerResetTimeout;
+  }
+
+  /**
+   * Set the time the circuit breaker stays open before a connection is made to probe the SMTP server, Defaults to
+   * 30 seconds.
+   *
+   * @param circuitBreakerResetTimeout the time, in {@link #getCircuitBreakerResetTimeoutUnit()}
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setCircuitBreakerResetTimeout(int circuitBreakerResetTimeout) {
+    if (circuitBreakerResetTimeout < 0) {
+      throw new IllegalArgumentException("circuitBreakerResetTimeout must be >= 0");
+    }
+    this.circuitBreakerResetTimeout = circuitBreakerResetTimeout;
+    return this;
+  }
+
+  /**
+   * @return the {@code TimeUnit} of the circuit breaker reset timeout
+   */
+  public TimeUnit getCircuitBreakerResetTimeoutUnit() {
+    return circuitBreakerResetTimeoutUnit;
+  }
+
+  /**
+   * Sets the {@code TimeUnit} of the circuit breaker reset timeout.
+   *
+   * @param circuitBreakerResetTimeoutUnit the {@code TimeUnit} of the circuit breaker reset timeout
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setCircuitBreakerResetTimeoutUnit(TimeUnit circuitBreakerResetTimeoutUnit) {
+    this.circuitBreakerResetTimeoutUnit = circuitBreakerResetTimeoutUnit;
+    return this;
+  }
+
+  /**
+   * @return the max count of messages sent per second
+   */
+  public int getMaxMessagesPerSecond() {
+    return maxMessagesPerSecond;
+  }
+
+  /**
+   * Set the max count of messages sent per second by the connection pool, Defaults to {@code 0}, not limited.
+   * <p/>
+   * The rate limits are token buckets holding the tokens of one second, a mail reserves its tokens before getting a
+   * connection and waits for the buckets to refill when they are exhausted, which keeps the client below the rates
+   * of the SMTP server instead of being throttled with 421 or 451 replies.
+   *
+   * @param maxMessagesPerSecond the count of messages
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxMessagesPerSecond(int maxMessagesPerSecond) {
+    if (maxMessagesPerSecond < 0) {
+      throw new IllegalArgumentException("maxMessagesPerSecond must be >= 0");
+    }
+    this.maxMessagesPerSecond = maxMessagesPerSecond;
+    return this;
+  }
+
+  /**
+   * @return the max count of recipients sent per second
+   */
+  public int getMaxRecipientsPerSecond() {
+    return maxRecipientsPerSecond;
+  }
+
+  /**
+   * Set the max count of recipients, the {@code RCPT} commands, sent per second by the connection pool, Defaults to
+   * {@code 0}, not limited.
+   *
+   * @param maxRecipientsPerSecond the count of recipients
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxRecipientsPerSecond(int maxRecipientsPerSecond) {
+    if (maxRecipientsPerSecond < 0) {
+      throw new IllegalArgumentException("maxRecipientsPerSecond must be >= 0");
+    }
+    this.maxRecipientsPerSecond = maxRecipientsPerSecond;
+    return this;
+  }
+
+  /**
+   * @return the max count of encoded bytes sent per second
+   */
+  public long getMaxBytesPerSecond() {
+    return maxBytesPerSecond;
+  }
+
+  /**
+   * Set the max count of encoded bytes sent per second by the connection pool, Defaults to {@code 0}, not limited.
+   * A mail larger than the bytes of one second is sent, and the next mails wait for the bucket to refill.
+   *
+   * @param maxBytesPerSecond the count of bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxBytesPerSecond(long maxBytesPerSecond) {
+    if (maxBytesPerSecond < 0) {
+      throw new IllegalArgumentException("maxBytesPerSecond must be >= 0");
+    }
+    this.maxBytesPerSecond = maxBytesPerSecond;
+    return this;
+  }
+
+  /**
+   * @return if the count of concurrent mail transactions adapts to the SMTP server
+   */
+  public boolean isAdaptiveConcurrency() {
+    return adaptiveConcurrency;
+  }
+
+  /**
+   * Set if the count of concurrent mail transactions of the connection pool adapts to the SMTP server, Defaults to
+   * {@code false}.
+   * <p/>
+   * The limit starts at {@link #getMaxPoolSize()}, which stays the hard cap. It decreases when the server is slower
+   * than {@link #getAdaptiveConcurrencyMaxLatency()} to reply to a command of a transaction, times out, or gets a 421 or 452 reply, and increases back when the
+   * transactions succeed, the mails over the limit wait for a transaction to complete.
+   *
+   * @param adaptiveConcurrency if the limit adapts to the SMTP server
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+    this.adaptiveConcurrency = adaptiveConcurrency;
+    return this;
+  }
+
+  /**
+   * @return the latency of a reply of the server above which the concurrency limit decreases, in milliseconds
+   */
+  public int getAdaptiveConcurrencyMaxLatency() {
+    return adaptiveConcurrencyMaxLatency;
+  }
+
+  /**
+   * Set the latency of a reply of the server to a command of a mail transaction above which the concurrency limit
+   * decreases, Defaults to 10 seconds. The waits of the client, for the rate limits or a pooled connection, and the
+   * transfer of the mail data are not part of the latency.
+   *
+   * @param adaptiveConcurrencyMaxLatency the latency, in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setAdaptiveConcurrencyMaxLatency(int adaptiveConcurrencyMaxLatency) {
+    if (adaptiveConcurrencyMaxLatency < 1) {
+      throw new IllegalArgumentException("adaptiveConcurrencyMaxLatency must be > 0");
+    }
+    this.adaptiveConcurrencyMaxLatency = adaptiveConcurrencyMaxLatency;
+    return this;
+  }
+
+  /**
+   * @return the max recipients of a mail transaction
+   */
+  public int getMaxRecipientsPerTransaction() {
+    return maxRecipientsPerTransaction;
+  }
+
+  /**
+   * Set the max recipients of a mail transaction, Defaults to {@code 0}, not limited.
+   * <p/>
+   * A mail with more recipients is sent in several transactions, reusing the encoded mail, and the recipients of all
+   * the transactions are aggregated in the {@link MailResult}. Regardless of this limit, the recipients refused with a
+   * 452 reply after other recipients were accepted are sent the mail in another transaction, following
+   * RFC 5321 section 4.5.3.1.10.
+   * <p/>
+   * When a transaction fails, the send fails, unless {@link #isAllowRcptErrors()} is set, then the recipients of the
+   * transaction are reported in {@link MailResult#getRecipientFailures()} and the next transactions are still sent.
+   *
+   * @param maxRecipientsPerTransaction the max recipients
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setMaxRecipientsPerTransaction(int maxRecipientsPerTransaction) {
+    if (maxRecipientsPerTransaction < 0) {
+      throw new IllegalArgumentException("maxRecipientsPerTransaction must be >= 0");
+    }
+    this.maxRecipientsPerTransaction = maxRecipientsPerTransaction;
+    return this;
+  }
+
+  /**
+   * @return the tracing policy of the sendMail operations
+   */
+  public TracingPolicy getTracingPolicy() {
+    return tracingPolicy;
+  }
+
+  /**
+   * Set the tracing policy of the sendMail operations, when Vert.x has a tracer. Defaults to
+   * {@link TracingPolicy#PROPAGATE}, a send is traced when it is part of a trace.
+   * <p/>
+   * A send is reported as a client span, tagged with the SMTP server, the count of recipients, the size of the mail,
+   * the reply code and the timings of the {@link MailStatistics}.
+   *
+   * @param tracingPolicy the tracing policy
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setTracingPolicy(TracingPolicy tracingPolicy) {
+    this.tracingPolicy = Objects.requireNonNull(tracingPolicy, "tracingPolicy");
+    return this;
+  }
+
+  /**
+   * @return the path of the Unix domain socket of the SMTP server, or {@code null} to connect over TCP
+   */
+  public String getDomainSocketPath() {
+    return domainSocketPath;
+  }
+
+  /**
+   * Set the path of the Unix domain socket of the SMTP server, e.g. of a local MTA, to connect to it instead of
+   * {@link #getHostname()} and {@link #getPort()} over TCP. The hostname is still used to verify the certificate of
+   * the server with SSL or STARTTLS.
+   * <p/>
+   * Domain sockets need a Vert.x transport supporting them, e.g. the native epoll transport enabled with
+   * {@link io.vertx.core.VertxOptions#setPreferNativeTransport(boolean)}.
+   *
+   * @param domainSocketPath the path of the domain socket, or {@code null} to connect over TCP
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setDomainSocketPath(String domainSocketPath) {
+    if (domainSocketPath != null && domainSocketPath.isEmpty()) {
+      throw new IllegalArgumentException("domainSocketPath must not be empty");
+    }
+    this.domainSocketPath = domainSocketPath;
+    return this;
+  }
+
+  /**
+   * @return if the client speaks LMTP instead of SMTP
+   */
+  public boolean isLmtp() {
+    return lmtp;
+  }
+
+  /**
+   * Set if the client speaks LMTP (RFC 2033) instead of SMTP, to deliver the mails into a mail store, e.g. through
+   * {@link #setDomainSocketPath(String)}. Defaults to {@code false}.
+   * <p/>
+   * The client greets the server with LHLO, and reads one reply per accepted recipient after the end of data, so
+   * that a mail is delivered to many mailboxes in one transaction with the status of each of them. The recipients
+   * the mail was not delivered to are reported in {@link MailResult#getRecipientFailures()}, the ones failing with a
+   * transient reply are sent the mail again when {@link #getMaxSendAttempts()} allows it.
+   *
+   * @param lmtp if the client speaks LMTP
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setLmtp(boolean lmtp) {
+    this.lmtp = lmtp;
+    return this;
+  }
+
+  /**
+   * @return the directory of the spool of the mails being sent, or {@code null} if the mails are not spooled
+   */
+  public String getSpoolPath() {
+    return spoolPath;
+  }
+
+  /**
+   * Set the directory of a durable spool of the mails being sent, so that the mails being sent when the process
+   * stops are sent again when a client using the same directory is created. Defaults to {@code null}, the mails
+   * are not spooled.
+   * <p/>
+   * A mail is written to a journal in the directory before it is sent, and acknowledged once the send completed, i.e.
+   * once the server accepted the mail or the failure is permanent, see {@link #setSpoolMaxReplays(int)}. A mail may
+   * then be sent twice when the process stops between the reply of the server and the acknowledgement. The mails with
+   * attachment streams, and the raw messages read from a stream, are not spooled.
+   * <p/>
+   * A {@link MailMessage} is journaled as its JSON form, with a generated Message-ID header, rather than as the encoded
+   * message, and it is encoded and signed again when it is sent again. A replayed mail keeps its Message-ID, but its
+   * Date header, its MIME boundaries and its DKIM signatures differ from the ones of the first send. The raw messages
+   * are journaled as they are.
+   * <p/>
+   * The directory is locked by a single client, or by the clients sharing a pool, creating another client using it
+   * fails with an {@link IllegalStateException}.
+   *
+   * @param spoolPath the directory of the spool, created if it does not exist
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setSpoolPath(String spoolPath) {
+    if (spoolPath != null && spoolPath.isEmpty()) {
+      throw new IllegalArgumentException("spoolPath must not be empty");
+    }
+    this.spoolPath = spoolPath;
+    return this;
+  }
+
+  /**
+   * @return the interval between the syncs of the spool to the disk, in milliseconds
+   */
+  public int getSpoolSyncInterval() {
+    return spoolSyncInterval;
+  }
+
+  /**
+   * Set the interval between the syncs of the spool to the disk, in milliseconds. The mails spooled during an
+   * interval are synced together, and sent once synced, a longer interval syncs more mails at once at the cost of
+   * the latency of each mail. {@code 0} syncs as soon as the previous sync completes. Defaults to {@code 10}.
+   *
+   * @param spoolSyncInterval the interval between the syncs, in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setSpoolSyncInterval(int spoolSyncInterval) {
+    if (spoolSyncInterval < 0) {
+      throw new IllegalArgumentException("spoolSyncInterval must be >= 0");
+    }
+    this.spoolSyncInterval = spoolSyncInterval;
+    return this;
+  }
+
+  /**
+   * @return the size of the segment files of the spool, in bytes
+   */
+  public long getSpoolSegmentSize() {
+    return spoolSegmentSize;
+  }
+
+  /**
+   * Set the size above which the spool starts a new segment file, in bytes. The segments are deleted once all their
+   * mails are acknowledged. Defaults to 64 MB.
+   *
+   * @param spoolSegmentSize the size of the segments, in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setSpoolSegmentSize(long spoolSegmentSize) {
+    if (spoolSegmentSize <= 0) {
+      throw new IllegalArgumentException("spoolSegmentSize must be > 0");
+    }
+    this.spoolSegmentSize = spoolSegmentSize;
+    return this;
+  }
+
+  /**
+   * @return the max count of times the spool sends again a mail which failed with a transient error
+   */
+  public int getSpoolMaxReplays() {
+    return spoolMaxReplays;
+  }
+
+  /**
+   * Set the max count of times the spool sends again a mail which failed with a transient error, e.g. a 4xx reply, a
+   * timeout or a connection failure, after its send attempts. Defaults to 5.
+   * <p/>
+   * The mail is kept in the spool and sent again after the delays of the retries, from {@link #getRetryInitialDelay()}
+   * doubling up to {@link #getRetryMaxDelay()}, the failure is still reported to the caller of the first send. The mail
+   * is acknowledged once it is sent, once it fails with a permanent error or once it failed this count of times.
+   * {@code 0} acknowledges the mail on any failure.
+   *
+   * @param spoolMaxReplays the max count of replays
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailConfig setSpoolMaxReplays(int spoolMaxReplays) {
+    if (spoolMaxReplays < 0) {
+      throw new IllegalArgumentException("spoolMaxReplays must be >= 0");
+    }
+    this.spoolMaxReplays = spoolMaxReplays;
+    return this;
+  }
+
   /**
    * convert config object to Json representation
    *
@@ -1083,6 +2108,52 @@ public class MailConfig extends NetClientOptions {
       json.put("workstation", workstation);
     }
     json.put("maxMailsPerConnection", maxMailsPerConnection);
+    json.put("greetingTimeout", greetingTimeout);
+    json.put("ehloTimeout", ehloTimeout);
+    json.put("authTimeout", authTimeout);
+    json.put("envelopeTimeout", envelopeTimeout);
+    json.put("endOfDataTimeout", endOfDataTimeout);
+    json.put("dataBlockTimeout", dataBlockTimeout);
+    json.put("replyTimeoutUnit", replyTimeoutUnit.name());
+    json.put("idleNoopInterval", idleNoopInterval);
+    json.put("idleNoopIntervalUnit", idleNoopIntervalUnit.name());
+    json.put("maxInFlightBytes", maxInFlightBytes);
+    if (failFastOnMaxInFlightBytes) {
+      json.put("failFastOnMaxInFlightBytes", true);
+    }
+    json.put("maxSendAttempts", maxSendAttempts);
+    json.put("retryInitialDelay", retryInitialDelay);
+    json.put("retryMaxDelay", retryMaxDelay);
+    json.put("retryDeadline", retryDeadline);
+    json.put("retryDelayUnit", retryDelayUnit.name());
+    json.put("circuitBreakerFailureThreshold", circuitBreakerFailureThreshold);
+    json.put("circuitBreakerErrorRate", circuitBreakerErrorRate);
+    json.put("circuitBreakerWindowSize", circuitBreakerWindowSize);
+    json.put("circuitBreakerResetTimeout", circuitBreakerResetTimeout);
+    json.put("circuitBreakerResetTimeoutUnit", circuitBreakerResetTimeoutUnit.name());
+    json.put("maxMessagesPerSecond", maxMessagesPerSecond);
+    json.put("maxRecipientsPerSecond", maxRecipientsPerSecond);
+    json.put("maxBytesPerSecond", maxBytesPerSecond);
+    if (adaptiveConcurrency) {
+      json.put("adaptiveConcurrency", true);
+    }
+    json.put("adaptiveConcurrencyMaxLatency", adaptiveConcurrencyMaxLatency);
+    json.put("maxRecipientsPerTransaction", maxRecipientsPerTransaction);
+    if (tracingPolicy != null) {
+      json.put("tracingPolicy", tracingPolicy.name());
+    }
+    if (domainSocketPath != null) {
+      json.put("domainSocketPath", domainSocketPath);
+    }
+    if (lmtp) {
+      json.put("lmtp", true);
+    }
+    if (spoolPath != null) {
+      json.put("spoolPath", spoolPath);
+    }
+    json.put("spoolSyncInterval", spoolSyncInterval);
+    json.put("spoolSegmentSize", spoolSegmentSize);
+    json.put("spoolMaxReplays", spoolMaxReplays);
 
     return json;
   }
@@ -1090,7 +2161,14 @@ public class MailConfig extends NetClientOptions {
   private List<Object> getList() {
     return Arrays.asList(hostname, port, starttls, login, username, password, authMethods, ownHostname, maxPoolSize,
       keepAlive, allowRcptErrors, disableEsmtp, userAgent, enableDKIM, dkimSignOptions, pipelining, multiPartOnly,
-      poolCleanerPeriod, keepAliveTimeout, poolCleanerPeriodUnit, keepAliveTimeoutUnit, ntDomain, workstation, maxMailsPerConnection);
+      poolCleanerPeriod, keepAliveTimeout, poolCleanerPeriodUnit, keepAliveTimeoutUnit, ntDomain, workstation, maxMailsPerConnection,
+      greetingTimeout, ehloTimeout, authTimeout, envelopeTimeout, endOfDataTimeout, replyTimeoutUnit,
+      idleNoopInterval, maxInFlightBytes, failFastOnMaxInFlightBytes, maxSendAttempts, retryInitialDelay, retryMaxDelay,
+      retryDeadline, retryDelayUnit, circuitBreakerFailureThreshold, circuitBreakerErrorRate, circuitBreakerWindowSize,
+      circuitBreakerResetTimeout, circuitBreakerResetTimeoutUnit, maxMessagesPerSecond, maxRecipientsPerSecond,
+      maxBytesPerSecond, adaptiveConcurrency, adaptiveConcurrencyMaxLatency, maxRecipientsPerTransaction, tracingPolicy,
+      domainSocketPath, lmtp, spoolPath, spoolSyncInterval, spoolSegmentSize, idleNoopIntervalUnit,
+      dataBlockTimeout, spoolMaxReplays);
   }
 
   /*
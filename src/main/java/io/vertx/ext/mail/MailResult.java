@@ -21,7 +21,9 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represent the result of the sendMail operation
@@ -33,15 +35,20 @@ public class MailResult {
 
   private String messageID;
   private List<String> recipients;
+  private MailStatistics statistics;
+  private Map<String, String> recipientFailures;
 
   public MailResult() {
     messageID = null;
     recipients = new ArrayList<>();
+    recipientFailures = new LinkedHashMap<>();
   }
 
   public MailResult(MailResult other) {
     messageID = other.messageID;
     recipients = new ArrayList<>(other.recipients);
+    recipientFailures = new LinkedHashMap<>(other.recipientFailures);
+    statistics = other.statistics == null ? null : new MailStatistics(other.statistics);
   }
 
   @SuppressWarnings("unchecked")
@@ -49,6 +56,13 @@ public class MailResult {
     messageID = json.getString("messageId");
     JsonArray jsonArray = json.getJsonArray("recipients");
     recipients = jsonArray == null ? new ArrayList<>() : (List<String>) jsonArray.getList();
+    JsonObject statisticsJson = json.getJsonObject("statistics");
+    statistics = statisticsJson == null ? null : new MailStatistics(statisticsJson);
+    recipientFailures = new LinkedHashMap<>();
+    JsonObject failuresJson = json.getJsonObject("recipientFailures");
+    if (failuresJson != null) {
+      failuresJson.forEach(entry -> recipientFailures.put(entry.getKey(), String.valueOf(entry.getValue())));
+    }
   }
 
   public JsonObject toJson() {
@@ -59,6 +73,12 @@ public class MailResult {
     if (recipients != null) {
       json.put("recipients", recipients);
     }
+    if (statistics != null) {
+      json.put("statistics", statistics.toJson());
+    }
+    if (recipientFailures != null && !recipientFailures.isEmpty()) {
+      json.put("recipientFailures", new JsonObject(new LinkedHashMap<>(recipientFailures)));
+    }
     return json;
   }
 
@@ -92,6 +112,39 @@ public class MailResult {
     return this;
   }
 
+  /**
+   * @return the timings and wire statistics of the operation, or {@code null} if not available
+   */
+  public MailStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * @param statistics the statistics to set
+   */
+  public MailResult setStatistics(MailStatistics statistics) {
+    this.statistics = statistics;
+    return this;
+  }
+
+  /**
+   * @return the recipients the mail was not sent to, mapped to the reason of the failure: with LMTP, the recipients
+   * refused by the reply of the server to the end of data, mapped to that reply, and with
+   * {@link MailConfig#isAllowRcptErrors()}, the recipients of a transaction which failed when the mail is sent in
+   * several transactions, mapped to the message of the exception of the failure
+   */
+  public Map<String, String> getRecipientFailures() {
+    return recipientFailures;
+  }
+
+  /**
+   * @param recipientFailures the recipient failures to set
+   */
+  public MailResult setRecipientFailures(Map<String, String> recipientFailures) {
+    this.recipientFailures = recipientFailures;
+    return this;
+  }
+
   public String toString() {
     return toJson().encode();
   }
@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.Nullable;
+import io.vertx.codegen.annotations.VertxGen;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A {@link WriteStream} sending the mails written to it with a {@link MailClient}.
+ * <p>
+ * The mails being sent are the write queue of the stream, {@link #writeQueueFull()} returns {@code true} once the
+ * count of mails in flight reaches {@link #setWriteQueueMaxSize(int)}, or their estimated size reaches
+ * {@link #setWriteQueueMaxBytes(long)}, and the drain handler is called once enough of them have been sent. This
+ * allows to pipe a {@link io.vertx.core.streams.ReadStream} of mails to the sender without holding an unbounded count
+ * of mails in memory when the SMTP server slows down.
+ * <p>
+ * The future returned by {@link #write(Object)} is completed with the result of sending the mail.
+ */
+@VertxGen
+public interface MailSender extends WriteStream<MailMessage> {
+
+  /**
+   * The default max count of mails in flight = 16
+   */
+  int DEFAULT_WRITE_QUEUE_MAX_SIZE = 16;
+
+  /**
+   * The default max estimated size of the mails in flight = 32 MB
+   */
+  long DEFAULT_WRITE_QUEUE_MAX_BYTES = 32L * 1024 * 1024;
+
+  @Override
+  MailSender exceptionHandler(@Nullable Handler<Throwable> handler);
+
+  /**
+   * Send a mail.
+   *
+   * @param mail the mail
+   * @return a future completed when the mail has been sent or failed to be sent
+   */
+  @Override
+  Future<Void> write(MailMessage mail);
+
+  /**
+   * Sets the max count of mails in flight.
+   *
+   * @param maxSize the max count of mails in flight
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Override
+  MailSender setWriteQueueMaxSize(int maxSize);
+
+  /**
+   * Sets the max estimated size of the mails in flight, the size of a mail is estimated from its text, html and
+   * attachments before it is encoded.
+   *
+   * @param maxBytes the max size in bytes
+   * @return a reference to this, so the API can be used fluently
+   */
+  @Fluent
+  MailSender setWriteQueueMaxBytes(long maxBytes);
+
+  @Override
+  MailSender drainHandler(@Nullable Handler<Void> handler);
+
+  /**
+   * @return the count of mails in flight
+   */
+  int inFlightMails();
+
+  /**
+   * @return the estimated size of the mails in flight
+   */
+  long inFlightBytes();
+
+}
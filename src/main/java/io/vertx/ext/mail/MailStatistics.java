@@ -0,0 +1,270 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The timings and wire statistics of a sendMail operation, the durations are in nanoseconds.
+ * <p>
+ * When the mail is sent in several transactions, because of batches of recipients or retries of part of them, the
+ * durations, bytes and round trips of the successful transactions are summed, and the other values are those of the
+ * last transaction.
+ */
+@DataObject
+public class MailStatistics {
+
+  private long poolWaitTime;
+  private long connectTime;
+  private long handshakeTime;
+  private long resetTime;
+  private long envelopeTime;
+  private long dataTime;
+  private long endOfDataTime;
+  private long bytesWritten;
+  private int dataWrites;
+  private int roundTrips;
+  private boolean connectionReused;
+  private String queueId;
+
+  public MailStatistics() {
+  }
+
+  public MailStatistics(MailStatistics other) {
+    poolWaitTime = other.poolWaitTime;
+    connectTime = other.connectTime;
+    handshakeTime = other.handshakeTime;
+    resetTime = other.resetTime;
+    envelopeTime = other.envelopeTime;
+    dataTime = other.dataTime;
+    endOfDataTime = other.endOfDataTime;
+    bytesWritten = other.bytesWritten;
+    dataWrites = other.dataWrites;
+    roundTrips = other.roundTrips;
+    connectionReused = other.connectionReused;
+    queueId = other.queueId;
+  }
+
+  public MailStatistics(JsonObject json) {
+    poolWaitTime = json.getLong("poolWaitTime", 0L);
+    connectTime = json.getLong("connectTime", 0L);
+    handshakeTime = json.getLong("handshakeTime", 0L);
+    resetTime = json.getLong("resetTime", 0L);
+    envelopeTime = json.getLong("envelopeTime", 0L);
+    dataTime = json.getLong("dataTime", 0L);
+    endOfDataTime = json.getLong("endOfDataTime", 0L);
+    bytesWritten = json.getLong("bytesWritten", 0L);
+    dataWrites = json.getInteger("dataWrites", 0);
+    roundTrips = json.getInteger("roundTrips", 0);
+    connectionReused = json.getBoolean("connectionReused", false);
+    queueId = json.getString("queueId");
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.put("poolWaitTime", poolWaitTime);
+    json.put("connectTime", connectTime);
+    json.put("handshakeTime", handshakeTime);
+    json.put("resetTime", resetTime);
+    json.put("envelopeTime", envelopeTime);
+    json.put("dataTime", dataTime);
+    json.put("endOfDataTime", endOfDataTime);
+    json.put("bytesWritten", bytesWritten);
+    json.put("dataWrites", dataWrites);
+    json.put("roundTrips", roundTrips);
+    json.put("connectionReused", connectionReused);
+    if (queueId != null) {
+      json.put("queueId", queueId);
+    }
+    return json;
+  }
+
+  /**
+   * @return the time waiting for a connection of the pool, without the connect of a new connection
+   */
+  public long getPoolWaitTime() {
+    return poolWaitTime;
+  }
+
+  public MailStatistics setPoolWaitTime(long poolWaitTime) {
+    this.poolWaitTime = poolWaitTime;
+    return this;
+  }
+
+  /**
+   * @return the time of the TCP connect of a new connection, with the TLS handshake of an SSL connection, 0 for a
+   * reused connection
+   */
+  public long getConnectTime() {
+    return connectTime;
+  }
+
+  public MailStatistics setConnectTime(long connectTime) {
+    this.connectTime = connectTime;
+    return this;
+  }
+
+  /**
+   * @return the time of the greeting, EHLO, STARTTLS and AUTH of a new connection, 0 for a reused connection
+   */
+  public long getHandshakeTime() {
+    return handshakeTime;
+  }
+
+  public MailStatistics setHandshakeTime(long handshakeTime) {
+    this.handshakeTime = handshakeTime;
+    return this;
+  }
+
+  /**
+   * @return the time of the RSET of a reused connection, 0 for a new connection
+   */
+  public long getResetTime() {
+    return resetTime;
+  }
+
+  public MailStatistics setResetTime(long resetTime) {
+    this.resetTime = resetTime;
+    return this;
+  }
+
+  /**
+   * @return the time of the MAIL FROM, RCPT TO and DATA commands
+   */
+  public long getEnvelopeTime() {
+    return envelopeTime;
+  }
+
+  public MailStatistics setEnvelopeTime(long envelopeTime) {
+    this.envelopeTime = envelopeTime;
+    return this;
+  }
+
+  /**
+   * @return the time writing the mail data, until the last chunk is written with the end of data line
+   */
+  public long getDataTime() {
+    return dataTime;
+  }
+
+  public MailStatistics setDataTime(long dataTime) {
+    this.dataTime = dataTime;
+    return this;
+  }
+
+  /**
+   * @return the time waiting for the reply to the end of data line
+   */
+  public long getEndOfDataTime() {
+    return endOfDataTime;
+  }
+
+  public MailStatistics setEndOfDataTime(long endOfDataTime) {
+    this.endOfDataTime = endOfDataTime;
+    return this;
+  }
+
+  /**
+   * @return the bytes of the commands and of the mail data written to the connection, without the TLS overhead
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public MailStatistics setBytesWritten(long bytesWritten) {
+    this.bytesWritten = bytesWritten;
+    return this;
+  }
+
+  /**
+   * @return the count of writes of the mail data to the connection, each of them flushed, the data is written in
+   * chunks instead of one write per line
+   */
+  public int getDataWrites() {
+    return dataWrites;
+  }
+
+  public MailStatistics setDataWrites(int dataWrites) {
+    this.dataWrites = dataWrites;
+    return this;
+  }
+
+  /**
+   * @return the count of round trips to the server, commands sent with PIPELINING count as one round trip
+   */
+  public int getRoundTrips() {
+    return roundTrips;
+  }
+
+  public MailStatistics setRoundTrips(int roundTrips) {
+    this.roundTrips = roundTrips;
+    return this;
+  }
+
+  /**
+   * @return if the mail was sent on a pooled connection
+   */
+  public boolean isConnectionReused() {
+    return connectionReused;
+  }
+
+  public MailStatistics setConnectionReused(boolean connectionReused) {
+    this.connectionReused = connectionReused;
+    return this;
+  }
+
+  /**
+   * @return the queue id of the mail, parsed from the reply to the end of data line, or {@code null} if the reply
+   * does not have a known format
+   */
+  public String getQueueId() {
+    return queueId;
+  }
+
+  public MailStatistics setQueueId(String queueId) {
+    this.queueId = queueId;
+    return this;
+  }
+
+  /**
+   * Adds the statistics of another transaction of the mail.
+   *
+   * @param other the statistics of the other transaction
+   * @return a reference to this, so the API can be used fluently
+   */
+  public MailStatistics add(MailStatistics other) {
+    poolWaitTime += other.poolWaitTime;
+    connectTime += other.connectTime;
+    handshakeTime += other.handshakeTime;
+    resetTime += other.resetTime;
+    envelopeTime += other.envelopeTime;
+    dataTime += other.dataTime;
+    endOfDataTime += other.endOfDataTime;
+    bytesWritten += other.bytesWritten;
+    dataWrites += other.dataWrites;
+    roundTrips += other.roundTrips;
+    connectionReused = other.connectionReused;
+    queueId = other.queueId;
+    return this;
+  }
+
+  public String toString() {
+    return toJson().encode();
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.VertxException;
+
+/**
+ * This represents a mail failed without connecting to the SMTP server because the circuit breaker of the connection
+ * pool is open, after too many connections to the server failed.
+ * <p>
+ * No connection is made until the reset timeout of the circuit breaker elapses, see
+ * {@link MailConfig#setCircuitBreakerResetTimeout(int)}.
+ */
+public class SMTPCircuitOpenException extends VertxException {
+
+  private final long remaining;
+
+  /**
+   * Constructor of SMTPCircuitOpenException.
+   *
+   * @param message the informative message
+   * @param remaining the time until the circuit breaker lets a connection through, in milliseconds
+   */
+  public SMTPCircuitOpenException(String message, long remaining) {
+    super(message, true);
+    this.remaining = remaining;
+  }
+
+  /**
+   * Gets the time until the circuit breaker lets a connection through to probe the SMTP server.
+   *
+   * @return the time in milliseconds
+   */
+  public long getRemaining() {
+    return remaining;
+  }
+
+}
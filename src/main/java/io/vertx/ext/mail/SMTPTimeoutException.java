@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.VertxException;
+
+/**
+ * This represents a timeout waiting for a reply of the SMTP server.
+ * <p>
+ * The connection the timeout happened on is closed and is not returned to the pool.
+ */
+public class SMTPTimeoutException extends VertxException {
+
+  private final long timeout;
+
+  /**
+   * Constructor of SMTPTimeoutException.
+   *
+   * @param message the informative message
+   * @param timeout the timeout which elapsed, in milliseconds
+   */
+  public SMTPTimeoutException(String message, long timeout) {
+    super(message, true);
+    this.timeout = timeout;
+  }
+
+  /**
+   * Gets the timeout which elapsed without a reply from the SMTP server.
+   *
+   * @return the timeout in milliseconds
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
+}
@@ -61,6 +61,14 @@ public class Capabilities {
    */
   private boolean capaEnhancedStatusCodes;
 
+  /**
+   * the limits of the server, see <a href="https://datatracker.ietf.org/doc/html/rfc9422">RFC 9422</a>
+   * 0 if not announced
+   */
+  private int limitMailMax;
+  private int limitRcptMax;
+  private int limitRcptDomainMax;
+
   /**
    * @return Set of Strings of capabilities
    */
@@ -89,6 +97,27 @@ public class Capabilities {
     return capaEnhancedStatusCodes;
   }
 
+  /**
+   * @return the max mail transactions per connection of the LIMITS extension, 0 if not announced
+   */
+  public int getMailMax() {
+    return limitMailMax;
+  }
+
+  /**
+   * @return the max recipients per transaction of the LIMITS extension, 0 if not announced
+   */
+  public int getRcptMax() {
+    return limitRcptMax;
+  }
+
+  /**
+   * @return the max recipient domains per transaction of the LIMITS extension, 0 if not announced
+   */
+  public int getRcptDomainMax() {
+    return limitRcptDomainMax;
+  }
+
   /**
    * @return if the server supports STARTTLS
    */
@@ -124,6 +153,9 @@ public class Capabilities {
       // if (c.equals("8BITMIME")) {
       // capa8BitMime = true;
       // }
+      if (c.regionMatches(true, 0, "LIMITS ", 0, 7)) {
+        parseLimits(c.substring(7));
+      }
       if (c.startsWith("SIZE ")) {
         try {
           capaSize = Integer.parseInt(c.substring(5));
@@ -134,6 +166,38 @@ public class Capabilities {
     }
   }
 
+  /**
+   * parse the parameters of the LIMITS keyword, e.g. {@code MAILMAX=1000 RCPTMAX=50}, the unknown or malformed
+   * limits are ignored
+   *
+   * @param limits the parameters of the LIMITS keyword
+   */
+  private void parseLimits(String limits) {
+    for (String limit : Utils.splitByChar(limits, ' ')) {
+      int eq = limit.indexOf('=');
+      if (eq <= 0) {
+        continue;
+      }
+      final int value;
+      try {
+        value = Integer.parseInt(limit.substring(eq + 1));
+      } catch (NumberFormatException n) {
+        continue;
+      }
+      if (value <= 0) {
+        continue;
+      }
+      String name = limit.substring(0, eq);
+      if (name.equalsIgnoreCase("MAILMAX")) {
+        limitMailMax = value;
+      } else if (name.equalsIgnoreCase("RCPTMAX")) {
+        limitRcptMax = value;
+      } else if (name.equalsIgnoreCase("RCPTDOMAINMAX")) {
+        limitRcptDomainMax = value;
+      }
+    }
+  }
+
   /**
    * parse a multi-line EHLO reply string into a List of lines
    *
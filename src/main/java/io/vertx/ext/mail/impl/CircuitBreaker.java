@@ -0,0 +1,186 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.SMTPCircuitOpenException;
+import io.vertx.ext.mail.SMTPException;
+
+/**
+ * Circuit breaker of the connections to a SMTP server.
+ * <p>
+ * The outcome of each connection, from the connect to the end of the handshake or the RSET of a pooled connection, is
+ * recorded, all the errors but the permanent replies (5xx) of the server count as failures, a permanent reply, e.g. a
+ * refused authentication, shows the server is up. The circuit opens after {@link MailConfig#getCircuitBreakerFailureThreshold()}
+ * consecutive failures, or when the failures reach {@link MailConfig#getCircuitBreakerErrorRate()} percent of the
+ * last {@link MailConfig#getCircuitBreakerWindowSize()} connections. While open, the connections fail immediately,
+ * once the reset timeout elapses a single connection is let through to probe the server, which closes the circuit
+ * when it succeeds or opens it again when it fails with any error. Only the outcome of the probe is recorded while
+ * the circuit is half-open, the connections started before the circuit opened are ignored.
+ */
+class CircuitBreaker {
+
+  private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  /**
+   * A connection let through by the circuit breaker, its outcome is recorded with {@link #record(Permit, Throwable)}.
+   */
+  static final class Permit {
+    private final boolean probe;
+
+    private Permit(boolean probe) {
+      this.probe = probe;
+    }
+  }
+
+  private static final Permit PERMIT = new Permit(false);
+
+  private final int failureThreshold;
+  private final int errorRate;
+  private final boolean[] window;
+  private final long resetTimeout;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private int windowCount;
+  private int windowFailures;
+  private int windowIndex;
+  private long openedAt;
+  private long openings;
+
+  CircuitBreaker(MailConfig config) {
+    this.failureThreshold = config.getCircuitBreakerFailureThreshold();
+    this.errorRate = config.getCircuitBreakerErrorRate();
+    this.window = new boolean[errorRate > 0 ? config.getCircuitBreakerWindowSize() : 0];
+    this.resetTimeout = config.getCircuitBreakerResetTimeoutUnit().toMillis(config.getCircuitBreakerResetTimeout());
+  }
+
+  private boolean isEnabled() {
+    return failureThreshold > 0 || errorRate > 0;
+  }
+
+  /**
+   * Checks that a connection can be made, the outcome of the connection must then be recorded.
+   *
+   * @return the permit of the connection
+   * @throws SMTPCircuitOpenException if the circuit is open
+   */
+  synchronized Permit acquire() {
+    switch (state) {
+      case CLOSED:
+        return PERMIT;
+      case OPEN:
+        final long remaining = openedAt + resetTimeout - System.currentTimeMillis();
+        if (remaining <= 0) {
+          log.debug("circuit breaker half-open, probing the SMTP server");
+          state = State.HALF_OPEN;
+          return new Permit(true);
+        }
+        throw new SMTPCircuitOpenException("circuit breaker is open", remaining);
+      default:
+        // a probe is in progress
+        throw new SMTPCircuitOpenException("circuit breaker is half-open", 0);
+    }
+  }
+
+  /**
+   * Records the outcome of a connection.
+   *
+   * @param permit the permit of the connection
+   * @param failure the failure of the connection, or {@code null} if it succeeded
+   */
+  void record(Permit permit, Throwable failure) {
+    if (!isEnabled()) {
+      return;
+    }
+    synchronized (this) {
+      if (state == State.HALF_OPEN) {
+        if (!permit.probe) {
+          // a connection started before the circuit opened
+          return;
+        }
+        if (failure != null) {
+          open();
+        } else {
+          log.debug("circuit breaker closed");
+          state = State.CLOSED;
+          consecutiveFailures = 0;
+          windowCount = windowFailures = windowIndex = 0;
+        }
+        return;
+      }
+      if (state == State.OPEN) {
+        // a connection started before the circuit opened
+        return;
+      }
+      final boolean failed = isFailure(failure);
+      consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+      if (window.length > 0) {
+        if (windowCount == window.length) {
+          if (window[windowIndex]) {
+            windowFailures--;
+          }
+        } else {
+          windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+          windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+      }
+      if ((failureThreshold > 0 && consecutiveFailures >= failureThreshold)
+        || (errorRate > 0 && windowCount == window.length && windowFailures * 100 >= errorRate * window.length)) {
+        open();
+      }
+    }
+  }
+
+  /**
+   * @return if the outcome of a connection counts as a failure: any error but a permanent reply of the server
+   */
+  static boolean isFailure(Throwable failure) {
+    if (failure == null) {
+      return false;
+    }
+    return !(failure instanceof SMTPException) || ((SMTPException) failure).isTransient();
+  }
+
+  private void open() {
+    if (log.isDebugEnabled()) {
+      log.debug("circuit breaker opened for " + resetTimeout + " ms");
+    }
+    state = State.OPEN;
+    openedAt = System.currentTimeMillis();
+    openings++;
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  synchronized long openings() {
+    return openings;
+  }
+
+}
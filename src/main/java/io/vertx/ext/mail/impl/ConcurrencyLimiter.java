@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.ext.mail.MailConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the concurrent mail transactions of a connection pool, the limit adapts to the SMTP server with an
+ * additive increase, multiplicative decrease (AIMD) algorithm.
+ * <p>
+ * The limit starts at {@link MailConfig#getMaxPoolSize()}, which stays the hard cap. A transaction with a reply of the
+ * server slower than {@link MailConfig#getAdaptiveConcurrencyMaxLatency()}, or congested, e.g. with a 421 or 452 reply, multiplies the
+ * limit by {@link #BACKOFF_RATIO}, and a successful transaction increases it by one when the transactions in flight
+ * use at least half of it. The transactions over the limit wait in order of arrival.
+ */
+class ConcurrencyLimiter {
+
+  private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final boolean enabled;
+  private final int maxLimit;
+  private final long maxLatency;
+  private final Deque<Promise<Void>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+  private boolean closed;
+
+  ConcurrencyLimiter(MailConfig config) {
+    this.enabled = config.isAdaptiveConcurrency();
+    this.maxLimit = config.getMaxPoolSize();
+    this.maxLatency = TimeUnit.MILLISECONDS.toNanos(config.getAdaptiveConcurrencyMaxLatency());
+    this.limit = maxLimit;
+  }
+
+  /**
+   * Acquires a permit for a transaction.
+   *
+   * @param context the context of the send operation
+   * @return a future completed once the transaction can start, the permit must then be released
+   */
+  Future<Void> acquire(ContextInternal context) {
+    if (!enabled) {
+      return context.succeededFuture();
+    }
+    synchronized (this) {
+      if (closed) {
+        return context.failedFuture("connection pool is closed");
+      }
+      if (waiters.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+        return context.succeededFuture();
+      }
+      Promise<Void> promise = context.promise();
+      waiters.add(promise);
+      return promise.future();
+    }
+  }
+
+  /**
+   * Releases the permit of a transaction, and adapts the limit to its outcome.
+   *
+   * @param latency the max latency of the replies of the server during the transaction, in nanos
+   * @param congested if the SMTP server replied it is congested
+   */
+  void release(long latency, boolean congested) {
+    if (!enabled) {
+      return;
+    }
+    final List<Promise<Void>> ready = new ArrayList<>();
+    synchronized (this) {
+      if (congested || latency > maxLatency) {
+        limit = Math.max(1, limit * BACKOFF_RATIO);
+        if (log.isDebugEnabled()) {
+          log.debug("concurrency limit decreased to " + (int) limit);
+        }
+      } else if (inFlight * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1);
+      }
+      inFlight--;
+      while (!waiters.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+        ready.add(waiters.poll());
+      }
+    }
+    ready.forEach(Promise::complete);
+  }
+
+  /**
+   * Fails the waiting transactions.
+   */
+  void close() {
+    final List<Promise<Void>> failed;
+    synchronized (this) {
+      closed = true;
+      failed = new ArrayList<>(waiters);
+      waiters.clear();
+    }
+    failed.forEach(promise -> promise.fail("connection pool is closed"));
+  }
+
+  synchronized int limit() {
+    return (int) limit;
+  }
+
+  synchronized int inFlight() {
+    return inFlight;
+  }
+
+}
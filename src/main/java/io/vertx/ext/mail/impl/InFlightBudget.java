@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.internal.ContextInternal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounds the estimated size of the mails in flight in a connection pool.
+ * <p>
+ * The mails acquire their size before they are encoded and release it once they are sent, the mails which do not fit
+ * wait in order of arrival, or fail when fail fast is configured. A mail larger than the whole budget is let through
+ * once no other mail is in flight, so it does not wait forever.
+ */
+class InFlightBudget {
+
+  private static final class Waiter {
+    private final long size;
+    private final Promise<Void> promise;
+
+    private Waiter(long size, Promise<Void> promise) {
+      this.size = size;
+      this.promise = promise;
+    }
+  }
+
+  private final long maxBytes;
+  private final boolean failFast;
+  private final Deque<Waiter> waiters = new ArrayDeque<>();
+  private long inFlightBytes;
+  private boolean closed;
+
+  InFlightBudget(long maxBytes, boolean failFast) {
+    this.maxBytes = maxBytes;
+    this.failFast = failFast;
+  }
+
+  /**
+   * Acquires the size of a mail.
+   *
+   * @param size the estimated size of the mail
+   * @param context the context of the send operation
+   * @return a future completed once the mail fits in the budget, the size must then be released
+   */
+  Future<Void> acquire(long size, ContextInternal context) {
+    if (maxBytes <= 0) {
+      return context.succeededFuture();
+    }
+    synchronized (this) {
+      if (closed) {
+        return context.failedFuture("connection pool is closed");
+      }
+      if (waiters.isEmpty() && fits(size)) {
+        inFlightBytes += size;
+        return context.succeededFuture();
+      }
+      if (failFast) {
+        return context.failedFuture("max in flight bytes of " + maxBytes + " exceeded");
+      }
+      Promise<Void> promise = context.promise();
+      waiters.add(new Waiter(size, promise));
+      return promise.future();
+    }
+  }
+
+  /**
+   * Releases the size of a sent mail, and lets the waiting mails which fit in the budget through.
+   *
+   * @param size the size given to {@link #acquire(long, ContextInternal)}
+   */
+  void release(long size) {
+    if (maxBytes <= 0) {
+      return;
+    }
+    final List<Promise<Void>> ready = new ArrayList<>();
+    synchronized (this) {
+      inFlightBytes -= size;
+      while (!waiters.isEmpty() && fits(waiters.peek().size)) {
+        Waiter waiter = waiters.poll();
+        inFlightBytes += waiter.size;
+        ready.add(waiter.promise);
+      }
+    }
+    ready.forEach(Promise::complete);
+  }
+
+  private boolean fits(long size) {
+    return inFlightBytes == 0 || inFlightBytes + size <= maxBytes;
+  }
+
+  /**
+   * Fails the waiting mails.
+   */
+  void close() {
+    final List<Waiter> failed;
+    synchronized (this) {
+      closed = true;
+      failed = new ArrayList<>(waiters);
+      waiters.clear();
+    }
+    failed.forEach(waiter -> waiter.promise.fail("connection pool is closed"));
+  }
+
+  synchronized long inFlightBytes() {
+    return inFlightBytes;
+  }
+
+  synchronized int waiting() {
+    return waiters.size();
+  }
+
+}
@@ -20,12 +20,16 @@ import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.internal.ContextInternal;
 import io.vertx.core.internal.logging.Logger;
 import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
 import io.vertx.core.shareddata.Shareable;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.auth.authentication.UsernamePasswordCredentials;
+import io.vertx.ext.mail.MailAttachment;
 import io.vertx.ext.mail.MailClient;
 import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.MailMessage;
@@ -33,6 +37,7 @@ import io.vertx.ext.mail.MailResult;
 import io.vertx.ext.mail.impl.dkim.DKIMSigner;
 import io.vertx.ext.mail.mailencoder.EncodedPart;
 import io.vertx.ext.mail.mailencoder.MailEncoder;
+import io.vertx.ext.mail.mailencoder.RawPart;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -80,6 +85,11 @@ public class MailClientImpl implements MailClient {
     } else {
       dkimSigners = Collections.emptyList();
     }
+    if (holder.spool() != null) {
+      // the mails left in the spool by a previous run are sent again, once it is replayed
+      holder.spool().takePending((ContextInternal) vertx.getOrCreateContext())
+        .onSuccess(records -> records.forEach(this::resend));
+    }
   }
 
   @Override
@@ -93,15 +103,56 @@ public class MailClientImpl implements MailClient {
 
   @Override
   public Future<MailResult> sendMail(MailMessage email) {
+    return send(email, Utils.estimateSize(email), null, -1, 0);
+  }
+
+  @Override
+  public Future<MailResult> sendRaw(String from, List<String> recipients, Buffer message) {
+    return send(new MailMessage().setFrom(from).setTo(recipients), message.length(), new RawPart(message), -1, 0);
+  }
+
+  @Override
+  public Future<MailResult> sendRawStream(String from, List<String> recipients, ReadStream<Buffer> message) {
+    return send(new MailMessage().setFrom(from).setTo(recipients), 0, new RawPart(message), -1, 0);
+  }
+
+  /**
+   * @param rawPart the raw message, or {@code null} to encode the mail
+   * @param spoolId the id of a mail replayed from the spool, or {@code -1} to spool the mail
+   * @param replays the count of times the mail was sent again by the spool after a transient failure
+   */
+  private Future<MailResult> send(MailMessage email, long size, RawPart rawPart, long spoolId, int replays) {
     ContextInternal context = (ContextInternal) vertx.getOrCreateContext();
     Promise<MailResult> promise = context.promise();
     if (!closed) {
+      // the budget is acquired before the mail is encoded and released once the connection is done with it
+      final InFlightBudget budget = connectionPool.inFlightBudget();
+      final SMTPTrace trace = SMTPTrace.start(context, config, email, size);
       validateHeaders(email, context)
         .flatMap(ignored -> getHostname())
-        .flatMap(ignored -> getConnection(promise::fail, context))
-        .flatMap(conn -> sendMessage(email, conn, context).compose(
-          result -> conn.returnToPool().transform(ignored -> context.succeededFuture(result)),
-          failure -> conn.quitCloseConnection().transform(ignored -> context.failedFuture(failure))))
+        // the Message-ID of a spooled mail is journaled with it, it is kept when the mail is replayed
+        .map(ignored -> spoolId < 0 && holder.spool() != null && rawPart == null && isSpooled(email, null)
+          ? withMessageId(email) : email)
+        .flatMap(mail -> spool(mail, rawPart, spoolId, context)
+          .flatMap(id -> budget.acquire(size, context)
+            .flatMap(ignored -> sendMessage(mail, rawPart, context, trace)
+              .andThen(ar -> budget.release(size)))
+            .andThen(ar -> {
+              if (id < 0) {
+                return;
+              }
+              if (ar.succeeded() || !SMTPSendRetry.isTransient(ar.cause()) || replays >= config.getSpoolMaxReplays()) {
+                holder.spool().ack(id);
+              } else {
+                // the mail is kept in the spool, and replayed when the process stops before it is sent
+                replayLater(mail, size, rawPart, id, replays + 1);
+              }
+            })))
+        .andThen(ar -> {
+          if (trace != null) {
+            trace.end(context, ar);
+          }
+        })
         .onComplete(promise);
     } else {
       promise.fail("mail client has been closed");
@@ -122,6 +173,103 @@ public class MailClientImpl implements MailClient {
     }
   }
 
+  /**
+   * @return a future completed with the id of the mail once it is spooled, or {@code -1} if it is not spooled
+   */
+  private Future<Long> spool(MailMessage email, RawPart rawPart, long spoolId, ContextInternal context) {
+    final MailSpool spool = holder.spool();
+    if (spool == null || spoolId >= 0) {
+      return context.succeededFuture(spoolId);
+    }
+    if (!isSpooled(email, rawPart)) {
+      // a stream is read once, it cannot be replayed
+      log.debug("the mail is not spooled, its content is a stream");
+      return context.succeededFuture(-1L);
+    }
+    if (rawPart == null) {
+      // the mail is encoded and signed again when it is replayed, only its Message-ID is kept
+      return spool.append(context, new JsonObject().put("message", email.toJson()), Buffer.buffer());
+    }
+    final JsonObject envelope = new JsonObject().put("from", email.getFrom()).put("recipients", email.getTo());
+    return spool.append(context, envelope, rawPart.message());
+  }
+
+  /**
+   * @return if the mail can be spooled, its content is not a stream
+   */
+  private static boolean isSpooled(MailMessage email, RawPart rawPart) {
+    if (rawPart != null) {
+      return rawPart.message() != null;
+    }
+    return !hasStream(email.getAttachment()) && !hasStream(email.getInlineAttachment());
+  }
+
+  /**
+   * @return a copy of the mail with a generated Message-ID header, unless it sets one, so that the mail replayed from
+   * the spool keeps its Message-ID and the receivers can discard the duplicates
+   */
+  private MailMessage withMessageId(MailMessage email) {
+    if (email.isFixedHeaders() || email.getHeaders() != null && email.getHeaders().contains("Message-ID")) {
+      return email;
+    }
+    return new MailMessage(email).addHeader("Message-ID", MailEncoder.generateMessageID(hostname, config));
+  }
+
+  /**
+   * Sends again a spooled mail which failed with a transient error, after the delay of the retries.
+   */
+  private void replayLater(MailMessage email, long size, RawPart rawPart, long spoolId, int replays) {
+    final long initial = config.getRetryDelayUnit().toMillis(config.getRetryInitialDelay());
+    final long max = config.getRetryDelayUnit().toMillis(config.getRetryMaxDelay());
+    long delay = initial;
+    for (int i = 1; i < replays && delay < max; i++) {
+      delay *= 2;
+    }
+    delay = Math.max(Math.min(delay, max), 1);
+    if (log.isDebugEnabled()) {
+      log.debug("sending the spooled mail " + spoolId + " again in " + delay + " ms, replay " + replays);
+    }
+    vertx.setTimer(delay, timer -> {
+      if (closed) {
+        // the mail is replayed by the next client using the spool
+        return;
+      }
+      // the signatures of a raw message are added to its headers, they are computed again
+      final RawPart part = rawPart != null ? new RawPart(rawPart.message()) : null;
+      logReplay(spoolId, send(new MailMessage(email), size, part, spoolId, replays));
+    });
+  }
+
+  private static boolean hasStream(List<MailAttachment> attachments) {
+    return attachments != null && attachments.stream().anyMatch(attachment -> attachment.getStream() != null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resend(MailSpool.Record record) {
+    final JsonObject message = record.metadata.getJsonObject("message");
+    final Future<MailResult> result;
+    if (message != null) {
+      final MailMessage email = new MailMessage(message);
+      result = send(email, Utils.estimateSize(email), null, record.id, 0);
+    } else {
+      final MailMessage email = new MailMessage()
+        .setFrom(record.metadata.getString("from"))
+        .setTo(record.metadata.getJsonArray("recipients").getList());
+      result = send(email, record.content.length(), new RawPart(record.content), record.id, 0);
+    }
+    logReplay(record.id, result);
+  }
+
+  private static void logReplay(long spoolId, Future<MailResult> result) {
+    result.onComplete(ar -> {
+      if (ar.failed()) {
+        log.warn("failed to send the spooled mail " + spoolId, ar.cause());
+      } else if (log.isDebugEnabled()) {
+        log.debug("sent the spooled mail " + spoolId);
+      }
+    });
+  }
+
   private Future<?> getHostname() {
     if (hostname != null) {
       return Future.succeededFuture();
@@ -140,8 +288,8 @@ public class MailClientImpl implements MailClient {
     });
   }
 
-  private Future<SMTPConnection> getConnection(Handler<Throwable> errorHandler, ContextInternal context) {
-    return connectionPool.getConnection(hostname, context)
+  private Future<SMTPConnection> getConnection(int recipients, long size, Handler<Throwable> errorHandler, ContextInternal context) {
+    return connectionPool.getConnection(hostname, context, recipients, size)
       .map(conn -> {
         conn.setExceptionHandler(errorHandler);
         return conn;
@@ -158,20 +306,44 @@ public class MailClientImpl implements MailClient {
     dkimSigners.forEach(dkim -> dkimFutures.add(dkim.signEmail(context, encodedPart)));
     return Future.all(dkimFutures).map(f -> {
       List<String> dkimHeaders = dkimFutures.stream().map(fr -> fr.result().toString()).collect(Collectors.toList());
-      encodedPart.headers().add(DKIMSigner.DKIM_SIGNATURE_HEADER, dkimHeaders);
+      if (encodedPart instanceof RawPart) {
+        // the headers of a raw message are part of its content, the signatures are written before them
+        ((RawPart) encodedPart).prependedHeaders().add(DKIMSigner.DKIM_SIGNATURE_HEADER, dkimHeaders);
+      } else {
+        encodedPart.headers().add(DKIMSigner.DKIM_SIGNATURE_HEADER, dkimHeaders);
+      }
       return null;
     });
   }
 
-  private Future<MailResult> sendMessage(MailMessage email, SMTPConnection conn, ContextInternal context) {
+  private Future<MailResult> sendMessage(MailMessage email, RawPart rawPart, ContextInternal context, SMTPTrace trace) {
     try {
-      final MailEncoder encoder = new MailEncoder(email, hostname, config);
-      final EncodedPart encodedPart = encoder.encodeMail(); // may throw
-      final String messageId = encoder.getMessageID();
-      final SMTPSendMail sendMail = new SMTPSendMail(context, conn, email, config, encodedPart, messageId);
+      // the mail is encoded and signed once, before getting a connection, and reused by the retries
+      final long encodeStart = System.nanoTime();
+      final EncodedPart encodedPart;
+      final String messageId;
+      if (rawPart != null) {
+        encodedPart = rawPart;
+        messageId = rawPart.headers().get("Message-ID");
+      } else {
+        final MailEncoder encoder = new MailEncoder(email, hostname, config);
+        encodedPart = encoder.encodeMail(); // may throw
+        messageId = encoder.getMessageID();
+      }
+      final long signStart = System.nanoTime();
+      if (trace != null) {
+        trace.encoded(signStart - encodeStart);
+      }
+      final SMTPSendRetry sendRetry = new SMTPSendRetry(context, config, email, encodedPart, messageId,
+        connectionPool.concurrencyLimiter(), (recipients, errorHandler) -> getConnection(recipients, encodedPart.size(), errorHandler, context));
 
       return dkimSign(context, encodedPart)
-        .flatMap(ignored -> sendMail.startMailTransaction());
+        .andThen(ar -> {
+          if (trace != null && !dkimSigners.isEmpty()) {
+            trace.signed(System.nanoTime() - signStart);
+          }
+        })
+        .flatMap(ignored -> sendRetry.send());
     } catch (Exception e) {
       return context.failedFuture(e);
     }
@@ -206,11 +378,14 @@ public class MailClientImpl implements MailClient {
 
   private static class MailHolder implements Shareable {
     final SMTPConnectionPool pool;
+    final MailSpool spool;
     final Runnable closeRunner;
     int refCount = 1;
 
     MailHolder(Vertx vertx, MailConfig config, Runnable closeRunner, Supplier<Future<UsernamePasswordCredentials>> credentialsSupplier) {
       this.closeRunner = closeRunner;
+      // the spool is opened first, it throws if its directory is used by another client
+      this.spool = config != null && config.getSpoolPath() != null ? new MailSpool(vertx, config) : null;
       this.pool = new SMTPConnectionPool(vertx, config, credentialsSupplier);
     }
 
@@ -218,6 +393,10 @@ public class MailClientImpl implements MailClient {
       return pool;
     }
 
+    MailSpool spool() {
+      return spool;
+    }
+
     synchronized void incRefCount() {
       refCount++;
     }
@@ -225,6 +404,9 @@ public class MailClientImpl implements MailClient {
     synchronized Future<Void> close() {
       if (--refCount == 0) {
         Future<Void> result = pool.doClose();
+        if (spool != null) {
+          result = result.eventually(spool::close);
+        }
         if (closeRunner != null) {
           closeRunner.run();
         }
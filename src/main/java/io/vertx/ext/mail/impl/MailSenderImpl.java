@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailSender;
+
+/**
+ * MailSender implementation, the mails are sent with {@link MailClient#sendMail(MailMessage)} while the count and
+ * the estimated size of the mails in flight are within the budgets.
+ */
+public class MailSenderImpl implements MailSender {
+
+  private final MailClient mailClient;
+
+  private int maxSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
+  private long maxBytes = DEFAULT_WRITE_QUEUE_MAX_BYTES;
+  private int inFlight;
+  private long inFlightBytes;
+  private boolean needsDrain;
+  private Handler<Void> drainHandler;
+  private Handler<Throwable> exceptionHandler;
+  private Promise<Void> endPromise;
+
+  public MailSenderImpl(MailClient mailClient) {
+    this.mailClient = mailClient;
+  }
+
+  @Override
+  public synchronized MailSender exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(MailMessage mail) {
+    final long size = Utils.estimateSize(mail);
+    synchronized (this) {
+      if (endPromise != null) {
+        return Future.failedFuture(new IllegalStateException("MailSender has been ended"));
+      }
+      inFlight++;
+      inFlightBytes += size;
+      if (isFull()) {
+        needsDrain = true;
+      }
+    }
+    return mailClient.sendMail(mail)
+      .andThen(ar -> sent(size, ar))
+      .mapEmpty();
+  }
+
+  private void sent(long size, AsyncResult<MailResult> ar) {
+    final Handler<Void> drain;
+    final Handler<Throwable> exception;
+    final Promise<Void> end;
+    synchronized (this) {
+      inFlight--;
+      inFlightBytes -= size;
+      if (needsDrain && !isFull()) {
+        needsDrain = false;
+        drain = drainHandler;
+      } else {
+        drain = null;
+      }
+      exception = ar.failed() ? exceptionHandler : null;
+      end = inFlight == 0 ? endPromise : null;
+    }
+    if (exception != null) {
+      exception.handle(ar.cause());
+    }
+    if (drain != null) {
+      drain.handle(null);
+    }
+    if (end != null) {
+      end.tryComplete();
+    }
+  }
+
+  private boolean isFull() {
+    return inFlight >= maxSize || inFlightBytes >= maxBytes;
+  }
+
+  @Override
+  public Future<Void> end() {
+    synchronized (this) {
+      if (endPromise == null) {
+        endPromise = Promise.promise();
+        if (inFlight == 0) {
+          endPromise.complete();
+        }
+      }
+      return endPromise.future();
+    }
+  }
+
+  @Override
+  public synchronized MailSender setWriteQueueMaxSize(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0");
+    }
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  @Override
+  public synchronized MailSender setWriteQueueMaxBytes(long maxBytes) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be > 0");
+    }
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  @Override
+  public synchronized boolean writeQueueFull() {
+    if (isFull()) {
+      needsDrain = true;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized MailSender drainHandler(Handler<Void> handler) {
+    this.drainHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized int inFlightMails() {
+    return inFlight;
+  }
+
+  @Override
+  public synchronized long inFlightBytes() {
+    return inFlightBytes;
+  }
+
+}
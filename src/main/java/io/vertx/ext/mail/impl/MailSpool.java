@@ -0,0 +1,496 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Durable spool of the mails being sent, an append-only journal split in segment files.
+ * <p>
+ * A mail is appended to the journal before it is sent, and acknowledged once the send completed. The records are
+ * written and synced to the disk in groups, every {@link MailConfig#getSpoolSyncInterval()} milliseconds, on a single
+ * worker thread, and the mails of a group are sent once it is synced. The journal is replayed on the same thread
+ * when the spool is opened, and the mails which are not acknowledged, i.e. the mails being sent when the process
+ * stopped, are returned once by {@link #takePending(ContextInternal)}.
+ * <p>
+ * A record is made of its length, its type, the id of its mail, its payload and the CRC32 of the type, id and payload,
+ * a record torn by a crash ends the replay of its segment, and the records are written after the last complete one, over
+ * the bytes a failed write may have torn, so that they are replayed. A new segment is started once the current one is larger than
+ * {@link MailConfig#getSpoolSegmentSize()}, and the segments are deleted from the oldest once all their mails are
+ * acknowledged, so that an acknowledgement never outlives the mail it refers to.
+ * <p>
+ * The directory is locked while the spool is open, a spool can only be opened by one mail client, or one shared
+ * client, at a time, so that the mails are not replayed twice.
+ */
+class MailSpool {
+
+  private static final Logger log = LoggerFactory.getLogger(MailSpool.class);
+
+  private static final byte ENQUEUE = 1;
+  private static final byte ACK = 2;
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final String LOCK_FILE = "spool.lock";
+  // type + id + crc, after the length
+  private static final int RECORD_OVERHEAD = 1 + 8 + 4;
+
+  /**
+   * A mail of the journal which was not acknowledged.
+   */
+  static final class Record {
+    final long id;
+    final JsonObject metadata;
+    final Buffer content;
+
+    private Record(long id, JsonObject metadata, Buffer content) {
+      this.id = id;
+      this.metadata = metadata;
+      this.content = content;
+    }
+  }
+
+  private final Vertx vertx;
+  private final Path directory;
+  private final long segmentSize;
+  private final long syncInterval;
+  private final WorkerExecutor executor;
+  // completed once the journal is replayed
+  private final Future<Void> opened;
+  // its lock is held while the spool is open
+  private final FileChannel lockChannel;
+
+  // the count of mails not acknowledged per segment, and the segment of each mail, only accessed by the executor
+  private final TreeMap<Long, Integer> segments = new TreeMap<>();
+  private final Map<Long, Long> mailSegments = new HashMap<>();
+  private FileChannel channel;
+  private long currentSegment;
+  private long currentSize;
+
+  // the records waiting for the next sync, guarded by this
+  private Buffer batch = Buffer.buffer();
+  private List<Long> batchEnqueued = new ArrayList<>();
+  private List<Long> batchAcked = new ArrayList<>();
+  private List<Promise<Void>> batchWaiters = new ArrayList<>();
+  private boolean syncScheduled;
+  private boolean syncing;
+  private long nextId;
+  private List<Record> pending;
+  private boolean closed;
+
+  /**
+   * Opens the spool, its journal is replayed by the worker thread of the spool.
+   *
+   * @throws IllegalStateException if the spool is used by another mail client
+   */
+  MailSpool(Vertx vertx, MailConfig config) {
+    this.vertx = vertx;
+    this.directory = Paths.get(config.getSpoolPath());
+    this.segmentSize = config.getSpoolSegmentSize();
+    this.syncInterval = config.getSpoolSyncInterval();
+    try {
+      Files.createDirectories(directory);
+      lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new IllegalStateException("cannot open the mail spool " + directory, e);
+    }
+    lock();
+    // a single thread, the segments are written in order
+    this.executor = vertx.createSharedWorkerExecutor("vertx-mail-spool-" + directory.toAbsolutePath(), 1);
+    this.opened = executor.<Void>executeBlocking(() -> {
+      open();
+      return null;
+    }).andThen(ar -> {
+      if (ar.failed()) {
+        log.error("cannot open the mail spool " + directory, ar.cause());
+      }
+    });
+  }
+
+  /**
+   * Appends a mail to the journal.
+   *
+   * @param context the context of the send operation
+   * @param metadata the envelope and the mail, or the envelope of a raw message
+   * @param content the raw message, empty for a mail
+   * @return a future completed with the id of the mail once it is synced to the disk
+   */
+  Future<Long> append(ContextInternal context, JsonObject metadata, Buffer content) {
+    if (opened.succeeded()) {
+      return doAppend(context, metadata, content);
+    }
+    // the ids of the mails follow the ones of the journal, once it is replayed
+    final Promise<Long> promise = context.promise();
+    opened.flatMap(v -> doAppend(context, metadata, content)).onComplete(promise);
+    return promise.future();
+  }
+
+  private Future<Long> doAppend(ContextInternal context, JsonObject metadata, Buffer content) {
+    final Buffer json = metadata.toBuffer();
+    final Buffer payload = Buffer.buffer(4 + json.length() + content.length())
+      .appendInt(json.length())
+      .appendBuffer(json)
+      .appendBuffer(content);
+    final Promise<Void> promise = context.promise();
+    final long id;
+    synchronized (this) {
+      if (closed) {
+        return context.failedFuture("mail spool is closed");
+      }
+      id = nextId++;
+      appendRecord(ENQUEUE, id, payload);
+      batchEnqueued.add(id);
+      batchWaiters.add(promise);
+      scheduleSync();
+    }
+    return promise.future().map(v -> id);
+  }
+
+  /**
+   * Acknowledges a mail, it is not replayed once the acknowledgement is synced. The acknowledgements after the spool
+   * is closed are dropped.
+   *
+   * @param id the id of the mail
+   */
+  void ack(long id) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      appendRecord(ACK, id, null);
+      batchAcked.add(id);
+      scheduleSync();
+    }
+  }
+
+  /**
+   * @param context the context of the returned future
+   * @return a future completed with the mails of the journal not acknowledged when the spool was opened, once it is
+   * replayed, only the first call returns them
+   */
+  Future<List<Record>> takePending(ContextInternal context) {
+    final Promise<List<Record>> promise = context.promise();
+    opened.map(v -> {
+      synchronized (this) {
+        final List<Record> result = pending;
+        pending = new ArrayList<>();
+        return result;
+      }
+    }).onComplete(promise);
+    return promise.future();
+  }
+
+  /**
+   * Syncs the pending records and closes the current segment.
+   */
+  Future<Void> close() {
+    synchronized (this) {
+      if (closed) {
+        return Future.succeededFuture();
+      }
+      closed = true;
+    }
+    return sync()
+      .eventually(() -> executor.executeBlocking(() -> {
+        try {
+          // null when the journal could not be replayed
+          if (channel != null) {
+            channel.close();
+          }
+        } finally {
+          unlock();
+        }
+        return null;
+      }))
+      .eventually(executor::close);
+  }
+
+  /**
+   * Locks the directory.
+   *
+   * @throws IllegalStateException if another spool, of this process or another one, holds the lock
+   */
+  private void lock() {
+    FileLock result;
+    try {
+      result = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // held by another spool of this process
+      result = null;
+    } catch (IOException e) {
+      unlock();
+      throw new IllegalStateException("cannot lock the mail spool " + directory, e);
+    }
+    if (result == null) {
+      unlock();
+      throw new IllegalStateException("the mail spool " + directory + " is used by another mail client");
+    }
+  }
+
+  private void unlock() {
+    try {
+      // closing the channel releases its lock
+      lockChannel.close();
+    } catch (IOException e) {
+      log.warn("cannot unlock the mail spool " + directory, e);
+    }
+  }
+
+  private void appendRecord(byte type, long id, Buffer payload) {
+    final int start = batch.length() + 4;
+    batch.appendInt(RECORD_OVERHEAD + (payload == null ? 0 : payload.length()))
+      .appendByte(type)
+      .appendLong(id);
+    if (payload != null) {
+      batch.appendBuffer(payload);
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(batch.getBytes(start, batch.length()));
+    batch.appendInt((int) crc.getValue());
+  }
+
+  // holding the lock
+  private void scheduleSync() {
+    if (syncScheduled) {
+      return;
+    }
+    syncScheduled = true;
+    if (syncInterval > 0) {
+      vertx.setTimer(syncInterval, id -> sync());
+    } else if (!syncing) {
+      sync();
+    }
+  }
+
+  private Future<Void> sync() {
+    final Buffer data;
+    final List<Long> enqueued;
+    final List<Long> acked;
+    final List<Promise<Void>> waiters;
+    synchronized (this) {
+      syncScheduled = false;
+      if (batch.length() == 0) {
+        return Future.succeededFuture();
+      }
+      syncing = true;
+      data = batch;
+      enqueued = batchEnqueued;
+      acked = batchAcked;
+      waiters = batchWaiters;
+      batch = Buffer.buffer();
+      batchEnqueued = new ArrayList<>();
+      batchAcked = new ArrayList<>();
+      batchWaiters = new ArrayList<>();
+    }
+    return executor.<Void>executeBlocking(() -> {
+      write(data, enqueued, acked);
+      return null;
+    }).andThen(ar -> {
+      if (ar.failed()) {
+        log.error("cannot write to the mail spool " + directory, ar.cause());
+      }
+      waiters.forEach(promise -> promise.handle(ar));
+      synchronized (this) {
+        syncing = false;
+        // the records appended during the sync are synced as one group
+        if (syncScheduled && syncInterval == 0) {
+          sync();
+        }
+      }
+    });
+  }
+
+  private void write(Buffer data, List<Long> enqueued, List<Long> acked) throws IOException {
+    if (currentSize >= segmentSize) {
+      channel.close();
+      currentSegment++;
+      channel = openSegment(currentSegment);
+      currentSize = 0;
+      segments.put(currentSegment, 0);
+    }
+    final ByteBuffer buffer = ByteBuffer.wrap(data.getBytes());
+    try {
+      // written at the end of the last complete record, over the bytes a failed write may have left
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, currentSize + buffer.position());
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      discardTornRecords();
+      throw e;
+    }
+    currentSize += data.length();
+    for (Long id : enqueued) {
+      mailSegments.put(id, currentSegment);
+      segments.merge(currentSegment, 1, Integer::sum);
+    }
+    for (Long id : acked) {
+      final Long segment = mailSegments.remove(id);
+      if (segment != null) {
+        segments.merge(segment, -1, Integer::sum);
+      }
+    }
+    deleteAcknowledged();
+  }
+
+  /**
+   * Removes the records a failed write may have torn, the replay of a segment ends at its first torn record, the
+   * records written after it would not be replayed. A new segment is started if the current one cannot be truncated.
+   */
+  private void discardTornRecords() {
+    try {
+      channel.truncate(currentSize);
+    } catch (IOException e) {
+      log.warn("cannot truncate the spool segment " + currentSegment + ", starting a new one", e);
+      try {
+        channel.close();
+      } catch (IOException ignore) {
+        // the segment is replaced
+      }
+      try {
+        currentSegment++;
+        channel = openSegment(currentSegment);
+        currentSize = 0;
+        segments.put(currentSegment, 0);
+      } catch (IOException ex) {
+        log.error("cannot start a new spool segment " + currentSegment, ex);
+      }
+    }
+  }
+
+  private void deleteAcknowledged() throws IOException {
+    while (!segments.isEmpty()) {
+      final Map.Entry<Long, Integer> oldest = segments.firstEntry();
+      if (oldest.getKey() == currentSegment || oldest.getValue() > 0) {
+        break;
+      }
+      Files.deleteIfExists(segmentPath(oldest.getKey()));
+      segments.remove(oldest.getKey());
+      if (log.isDebugEnabled()) {
+        log.debug("deleted the spool segment " + oldest.getKey());
+      }
+    }
+  }
+
+  private void open() throws IOException {
+    final List<Long> existing = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        final String name = file.getFileName().toString();
+        try {
+          existing.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          log.warn("ignoring the file " + file + " of the mail spool");
+        }
+      }
+    }
+    existing.sort(null);
+    final Map<Long, Record> live = new LinkedHashMap<>();
+    long maxId = -1;
+    for (Long segment : existing) {
+      segments.put(segment, 0);
+      maxId = Math.max(maxId, replay(segment, live));
+    }
+    for (Record record : live.values()) {
+      segments.merge(mailSegments.get(record.id), 1, Integer::sum);
+    }
+    nextId = maxId + 1;
+    // the records are appended to a new segment, after the possibly torn tail of the last one
+    currentSegment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+    channel = openSegment(currentSegment);
+    segments.put(currentSegment, 0);
+    deleteAcknowledged();
+    pending = new ArrayList<>(live.values());
+    if (!pending.isEmpty()) {
+      log.info(pending.size() + " mails are pending in the mail spool " + directory);
+    }
+  }
+
+  /**
+   * @return the max id of the records of the segment
+   */
+  private long replay(long segment, Map<Long, Record> live) throws IOException {
+    final Buffer data = Buffer.buffer(Files.readAllBytes(segmentPath(segment)));
+    long maxId = -1;
+    int pos = 0;
+    while (pos + 4 <= data.length()) {
+      final int length = data.getInt(pos);
+      final int start = pos + 4;
+      final int end = start + length;
+      if (length < RECORD_OVERHEAD || end > data.length() || end < start) {
+        log.warn("torn record at " + pos + " in the spool segment " + segment);
+        break;
+      }
+      final CRC32 crc = new CRC32();
+      crc.update(data.getBytes(start, end - 4));
+      if ((int) crc.getValue() != data.getInt(end - 4)) {
+        log.warn("corrupted record at " + pos + " in the spool segment " + segment);
+        break;
+      }
+      final byte type = data.getByte(start);
+      final long id = data.getLong(start + 1);
+      maxId = Math.max(maxId, id);
+      if (type == ENQUEUE) {
+        final int jsonStart = start + 1 + 8 + 4;
+        final int contentStart = jsonStart + data.getInt(start + 1 + 8);
+        final JsonObject metadata = new JsonObject(data.getBuffer(jsonStart, contentStart));
+        live.put(id, new Record(id, metadata, data.getBuffer(contentStart, end - 4)));
+        mailSegments.put(id, segment);
+      } else if (type == ACK) {
+        live.remove(id);
+        mailSegments.remove(id);
+      }
+      pos = end;
+    }
+    return maxId;
+  }
+
+  private FileChannel openSegment(long segment) throws IOException {
+    // not opened to append, the records are written at a position
+    return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+  }
+
+  private Path segmentPath(long segment) {
+    return directory.resolve(String.format("%020d", segment) + SEGMENT_SUFFIX);
+  }
+
+}
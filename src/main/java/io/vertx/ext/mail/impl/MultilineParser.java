@@ -22,81 +22,119 @@ import io.vertx.core.internal.logging.Logger;
 import io.vertx.core.internal.logging.LoggerFactory;
 import io.vertx.core.parsetools.RecordParser;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handler to handle the possible multi-lines responses.
  *
  * Multi-lines responses for one command split with '\n'.
  * Responses(one line response and multi-lines responses) split with '\r\n'.
+ * <p>
+ * The lines are inspected at byte level, a line is the final line of a reply unless its 4th byte is a '-'
+ * following the 3 digits reply code. Each reply is handed to the output as a {@link SMTPResponse} holding
+ * slices of the received lines, once the expected count of replies, which is more than one for pipelined
+ * commands, has been received.
  *
  * @author <a href="http://oss.lehmann.cx/">Alexander Lehmann</a>
  * @author <a href="mailto:aoingl@gmail.com">Lin Gao</a>
  */
 public class MultilineParser implements Handler<Buffer> {
-  private static final Pattern STATUS_LINE_CONTINUE = Pattern.compile("^\\d{3}-.*");
   private static final Logger log = LoggerFactory.getLogger(MultilineParser.class);
-  private boolean initialized = false;
-  private Buffer result;
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final Handler<SMTPResponse[]> output;
   private final RecordParser rp;
+  private boolean initialized = false;
+  private List<Buffer> lines;
+  private SMTPResponse[] result;
   private int expected = 1;
   private int actual = 0;
 
-  public MultilineParser(Handler<Buffer> output) {
-    Handler<Buffer> mlp = new Handler<Buffer>() {
+  public MultilineParser(Handler<SMTPResponse[]> output) {
+    this.output = output;
+    this.rp = RecordParser.newDelimited("\n", this::handleRecord);
+  }
 
-      @Override
-      public void handle(final Buffer buffer) {
-        if (!initialized) {
-          initialized = true;
-          // process the first line to determine CRLF mode
-          final String line = buffer.toString();
-          if (line.endsWith("\r")) {
-            log.debug("setting crlf line mode");
-            rp.delimitedMode("\r\n");
-            appendOrHandle(Buffer.buffer(line.substring(0, line.length() - 1)));
-          } else {
-            appendOrHandle(buffer);
-          }
-        } else {
-          appendOrHandle(buffer);
-        }
+  private void handleRecord(Buffer buffer) {
+    int length = buffer.length();
+    if (!initialized) {
+      initialized = true;
+      // process the first line to determine CRLF mode
+      if (length > 0 && buffer.getByte(length - 1) == CR) {
+        log.debug("setting crlf line mode");
+        rp.delimitedMode("\r\n");
+        length--;
       }
+    }
+    appendOrHandle(buffer, length);
+  }
 
-      private void appendOrHandle(final Buffer buffer) {
-        if (result == null) {
-          result = Buffer.buffer();
-        }
-        result.appendBuffer(buffer);
-        if (isFinalLine(buffer)) {
-          actual ++;
-          if (actual < expected) {
-            result.appendString("\r\n");
-          } else if (actual == expected) {
-            try {
-              output.handle(result);
-            } finally {
-              result = null;
-              actual = 0;
-            }
-          }
-        } else {
-          // append \n for all non-last line, there are more buffers to handle
-          result.appendString("\n");
-        }
+  private void appendOrHandle(final Buffer buffer, final int length) {
+    if (lines == null) {
+      lines = new ArrayList<>(1);
+    }
+    // in crlf mode, a record may still contain lines split with a bare '\n'
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      if (buffer.getByte(i) == LF) {
+        lines.add(line(buffer, start, i));
+        start = i + 1;
+      }
+    }
+    lines.add(line(buffer, start, length));
+    if (isFinalLine(buffer, start, length)) {
+      if (result == null) {
+        result = new SMTPResponse[expected];
+      }
+      result[actual++] = new SMTPResponse(lines);
+      lines = null;
+      if (actual == expected) {
+        final SMTPResponse[] replies = result;
+        result = null;
+        actual = 0;
+        output.handle(replies);
       }
-    };
+    }
+  }
 
-    rp = RecordParser.newDelimited("\n", mlp);
+  private static Buffer line(Buffer buffer, int start, int end) {
+    if (end > start && buffer.getByte(end - 1) == CR) {
+      end--;
+    }
+    return buffer.slice(start, end);
   }
 
+  /**
+   * Checks whether the last line in the buffer terminates a reply.
+   *
+   * @param buffer the buffer containing one or more lines
+   * @return true if the last line is not a continuation line like {@code 250-...}
+   */
   public boolean isFinalLine(final Buffer buffer) {
-    String line = buffer.toString();
-    if (line.contains("\n")) {
-      String[] lines = line.split("\n");
-      line = lines[lines.length - 1];
+    final int length = buffer.length();
+    int start = 0;
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer.getByte(i) == LF) {
+        start = i + 1;
+        break;
+      }
+    }
+    return isFinalLine(buffer, start, length);
+  }
+
+  private static boolean isFinalLine(Buffer buffer, int start, int end) {
+    if (end - start < 4 || buffer.getByte(start + 3) != '-') {
+      return true;
+    }
+    for (int i = start; i < start + 3; i++) {
+      byte b = buffer.getByte(i);
+      if (b < '0' || b > '9') {
+        return true;
+      }
     }
-    return !STATUS_LINE_CONTINUE.matcher(line).matches();
+    return false;
   }
 
   @Override
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.ext.mail.MailConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets limiting the messages, recipients and bytes sent per second to a SMTP server.
+ * <p>
+ * A mail reserves its tokens before getting a connection, the buckets may go into debt so that a mail larger than the
+ * tokens of a second is sent too, and the mail waits until the debt is paid back by the refill of the buckets. Each
+ * bucket holds at most the tokens of one second, which is the burst allowed after an idle period.
+ */
+class RateLimiter {
+
+  private static final class Bucket {
+    // tokens per nano second
+    private final double rate;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    private Bucket(long perSecond, long now) {
+      this.rate = perSecond / (double) TimeUnit.SECONDS.toNanos(1);
+      this.capacity = perSecond;
+      this.tokens = perSecond;
+      this.lastRefill = now;
+    }
+
+    /**
+     * @return the nanos to wait for the reserved tokens
+     */
+    private long reserve(long n, long now) {
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * rate);
+      lastRefill = now;
+      tokens -= n;
+      return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / rate);
+    }
+  }
+
+  private final Bucket messages;
+  private final Bucket recipients;
+  private final Bucket bytes;
+
+  RateLimiter(MailConfig config) {
+    final long now = System.nanoTime();
+    this.messages = config.getMaxMessagesPerSecond() > 0 ? new Bucket(config.getMaxMessagesPerSecond(), now) : null;
+    this.recipients = config.getMaxRecipientsPerSecond() > 0 ? new Bucket(config.getMaxRecipientsPerSecond(), now) : null;
+    this.bytes = config.getMaxBytesPerSecond() > 0 ? new Bucket(config.getMaxBytesPerSecond(), now) : null;
+  }
+
+  /**
+   * Reserves the tokens of a mail.
+   *
+   * @param recipientCount the count of recipients of the mail
+   * @param size the encoded size of the mail
+   * @param context the context of the send operation
+   * @return a future completed once the mail can be sent
+   */
+  Future<Void> acquire(int recipientCount, long size, ContextInternal context) {
+    if (messages == null && recipients == null && bytes == null) {
+      return context.succeededFuture();
+    }
+    final long delay;
+    synchronized (this) {
+      final long now = System.nanoTime();
+      long wait = 0;
+      if (messages != null) {
+        wait = Math.max(wait, messages.reserve(1, now));
+      }
+      if (recipients != null) {
+        wait = Math.max(wait, recipients.reserve(recipientCount, now));
+      }
+      if (bytes != null) {
+        wait = Math.max(wait, bytes.reserve(size, now));
+      }
+      delay = TimeUnit.NANOSECONDS.toMillis(wait);
+    }
+    if (delay == 0) {
+      return context.succeededFuture();
+    }
+    final Promise<Void> promise = context.promise();
+    context.setTimer(delay, id -> promise.complete());
+    return promise.future();
+  }
+
+}
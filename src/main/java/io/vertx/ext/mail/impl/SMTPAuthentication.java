@@ -155,7 +155,7 @@ class SMTPAuthentication {
       onError.handle(e);
       return;
     }
-    connection.write(nextLine, blank).onComplete(ar -> {
+    connection.write(nextLine, blank, SMTPPhase.AUTH).onComplete(ar -> {
       if (ar.failed()) {
         onError.handle(ar.cause());
         return;
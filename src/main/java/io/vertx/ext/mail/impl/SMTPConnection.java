@@ -17,17 +17,19 @@
 package io.vertx.ext.mail.impl;
 
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.internal.ContextInternal;
 import io.vertx.core.internal.logging.Logger;
 import io.vertx.core.internal.logging.LoggerFactory;
 import io.vertx.core.net.NetSocket;
 import io.vertx.core.internal.pool.Lease;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailStatistics;
+import io.vertx.ext.mail.SMTPTimeoutException;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Pattern;
 
 /**
  * SMTP connection to a server.
@@ -40,13 +42,20 @@ import java.util.regex.Pattern;
 public class SMTPConnection {
 
   private static final Logger log = LoggerFactory.getLogger(SMTPConnection.class);
-  private static final Pattern linePattern = Pattern.compile("\r\n");
+
+  // the commands without arguments are encoded only once, a Buffer can be written several times
+  static final Buffer RSET = command("RSET");
+  static final Buffer DATA = command("DATA");
+  static final Buffer QUIT = command("QUIT");
+  static final Buffer NOOP = command("NOOP");
+  static final Buffer END_OF_DATA = command(".");
 
   private final NetSocket ns;
   private final MailConfig config;
   private Lease<SMTPConnection> lease;
   private MultilineParser nsHandler;
   private final Handler<Void> evictionHandler;
+  private final TLSSessionStats tlsSessionStats;
 
   private boolean evicted;
   private boolean socketClosed;
@@ -54,22 +63,49 @@ public class SMTPConnection {
   private boolean inuse;
   private boolean quitSent;
 
-  private Completable<String> commandReplyHandler;
+  private Completable<SMTPResponse[]> commandReplyHandler;
+  private long replyTimer = -1;
   private Handler<Throwable> exceptionHandler;
   private Completable<Void> closeHandler;
   private Capabilities capa = new Capabilities();
   private final ContextInternal context;
   private long expirationTimestamp;
+  // the time the connection became idle, or the last successful NOOP
+  private volatile long idleTimestamp;
+  private volatile Future<Void> idleNoop;
+  private volatile Promise<Void> idleNoopPromise;
   private final AtomicLong emailsSent;
-
-  SMTPConnection(MailConfig config, NetSocket ns, ContextInternal context, Handler<Void> evictionHandler) {
+  private final long createdTime = System.nanoTime();
+  // the wire statistics, the operations of a connection are sequential
+  private long bytesWritten;
+  private int roundTrips;
+  // the statistics of the current mail, from the acquisition of the connection
+  private long statisticsBytes;
+  private int statisticsRoundTrips;
+  private long poolWaitTime;
+  // the time of the connect of the socket, set by the end point
+  private long connectTime;
+  private long handshakeTime;
+  private long resetTime;
+  // the time the last command was written, and the max latency of the replies since startReplyLatency()
+  private long commandStart;
+  private long maxReplyLatency;
+  private boolean reused;
+
+  SMTPConnection(MailConfig config, NetSocket ns, ContextInternal context, TLSSessionStats tlsSessionStats,
+                 Handler<Void> evictionHandler) {
     this.config = config;
     this.ns = ns;
     this.context = context;
+    this.tlsSessionStats = tlsSessionStats;
     this.evictionHandler = evictionHandler;
     this.emailsSent = new AtomicLong(0);
   }
 
+  private static Buffer command(String command) {
+    return Buffer.buffer(command.length() + 2).appendString(command).appendString("\r\n");
+  }
+
   /**
    * Compute the expiration timeout of the connection, relative to the current time.
    *
@@ -86,36 +122,98 @@ public class SMTPConnection {
     return this;
   }
 
+  /**
+   * Starts the statistics of the mail sent on this connection, once it is acquired from the pool.
+   *
+   * @param poolWaitTime the time waiting for the connection, including the connect of a new connection, in nanos
+   */
+  void startStatistics(long poolWaitTime) {
+    this.statisticsBytes = bytesWritten;
+    this.statisticsRoundTrips = roundTrips;
+    this.handshakeTime = 0;
+    this.resetTime = 0;
+    this.reused = isInitialized();
+    // the connect of a new connection is reported apart, the pool wait is only the queueing
+    this.poolWaitTime = reused ? poolWaitTime : Math.max(0, poolWaitTime - connectTime);
+  }
+
+  SMTPConnection setConnectTime(long connectTime) {
+    this.connectTime = connectTime;
+    return this;
+  }
+
+  /**
+   * Starts measuring the latency of the replies of the server, at the start of a mail transaction.
+   */
+  void startReplyLatency() {
+    maxReplyLatency = 0;
+  }
+
+  /**
+   * @return the max time between a command and its reply since {@link #startReplyLatency()}, in nanos
+   */
+  long maxReplyLatency() {
+    return maxReplyLatency;
+  }
+
+  SMTPConnection setHandshakeTime(long handshakeTime) {
+    this.handshakeTime = handshakeTime;
+    return this;
+  }
+
+  SMTPConnection setResetTime(long resetTime) {
+    this.resetTime = resetTime;
+    return this;
+  }
+
+  /**
+   * @return the statistics of the mail sent on this connection, since {@link #startStatistics(long)}
+   */
+  MailStatistics statistics() {
+    return new MailStatistics()
+      .setPoolWaitTime(poolWaitTime)
+      .setConnectTime(reused ? 0 : connectTime)
+      .setHandshakeTime(handshakeTime)
+      .setResetTime(resetTime)
+      .setBytesWritten(bytesWritten - statisticsBytes)
+      .setRoundTrips(roundTrips - statisticsRoundTrips)
+      .setConnectionReused(reused);
+  }
+
   boolean isInitialized() {
     return this.nsHandler != null;
   }
 
-  Future<String> init() {
+  Future<SMTPResponse> init() {
     if (nsHandler != null) {
       return context.failedFuture(new IllegalStateException("SMTPConnection has been initialized."));
     }
 
-    this.nsHandler = new MultilineParser(buffer -> {
+    this.nsHandler = new MultilineParser(replies -> {
       if (commandReplyHandler == null && !quitSent) {
         log.error("dropping reply arriving after we stopped processing the buffer.");
       } else {
         // make sure we only call the handler once
-        Completable<String> currentHandler = commandReplyHandler;
+        Completable<SMTPResponse[]> currentHandler = commandReplyHandler;
         commandReplyHandler = null;
+        cancelReplyTimer();
+        maxReplyLatency = Math.max(maxReplyLatency, System.nanoTime() - commandStart);
         if (currentHandler != null) {
-          currentHandler.succeed(buffer.toString());
+          currentHandler.succeed(replies);
         }
       }
     });
 
-    Promise<String> promise = context.promise();
+    Promise<SMTPResponse[]> promise = context.promise();
     commandReplyHandler = promise;
+    commandStart = System.nanoTime();
+    startReplyTimer(SMTPPhase.GREETING);
     expirationTimestamp = expirationTimestampOf(config);
     ns.handler(this.nsHandler);
     ns.exceptionHandler(this::handleNSException);
     ns.closeHandler(this::handleNSClosed);
 
-    return promise.future();
+    return promise.future().map(replies -> replies[0]);
   }
 
   void handleNSException(Throwable t) {
@@ -163,6 +261,16 @@ public class SMTPConnection {
   }
 
   private void handleClosed() {
+    if (!evicted && SMTPEvents.connectionCloseEnabled()) {
+      final SMTPEvents.ConnectionClose event = new SMTPEvents.ConnectionClose();
+      if (event.shouldCommit()) {
+        event.server = SMTPEvents.server(config);
+        event.mailsSent = emailsSent.get();
+        event.lifetime = System.nanoTime() - createdTime;
+        event.unexpected = !quitSent;
+        event.commit();
+      }
+    }
     setNoUse();
     if (closeHandler != null) {
       closeHandler.succeed();
@@ -188,6 +296,49 @@ public class SMTPConnection {
   private void cleanHandlers() {
     exceptionHandler = null;
     commandReplyHandler = null;
+    cancelReplyTimer();
+  }
+
+  private void startReplyTimer(SMTPPhase phase) {
+    final long timeout = phase.timeout(config);
+    if (timeout > 0) {
+      replyTimer = context.setTimer(timeout, id -> handleReplyTimeout(phase, timeout));
+    }
+  }
+
+  private void cancelReplyTimer() {
+    if (replyTimer != -1) {
+      context.owner().cancelTimer(replyTimer);
+      replyTimer = -1;
+    }
+  }
+
+  /**
+   * the server did not reply in time, the connection is in an unknown state so it is closed, which evicts it from
+   * the pool.
+   */
+  private void handleReplyTimeout(SMTPPhase phase, long timeout) {
+    replyTimer = -1;
+    Completable<SMTPResponse[]> currentHandler = commandReplyHandler;
+    commandReplyHandler = null;
+    log.debug("no reply of the server in " + phase + " phase after " + timeout + " ms, closing the connection");
+    shutdown();
+    if (currentHandler != null) {
+      currentHandler.fail(new SMTPTimeoutException("Timeout waiting for the reply in " + phase + " phase after " + timeout + " ms", timeout));
+    }
+  }
+
+  /**
+   * @return the max mails sent on the connection, the MAILMAX limit announced by the server when it is lower than
+   * {@link MailConfig#getMaxMailsPerConnection()}
+   */
+  private long maxMailsPerConnection() {
+    final long max = config.getMaxMailsPerConnection();
+    final int mailMax = capa.getMailMax();
+    if (mailMax > 0 && (max <= 0 || mailMax < max)) {
+      return mailMax;
+    }
+    return max;
   }
 
   public Future<Void> returnToPool() {
@@ -196,7 +347,8 @@ public class SMTPConnection {
     Promise<Void> promise = context.promise();
     try {
       final long count = emailsSent.incrementAndGet();
-      boolean exceed = config.getMaxMailsPerConnection() > 0 && count >= config.getMaxMailsPerConnection();
+      final long maxMails = maxMailsPerConnection();
+      boolean exceed = maxMails > 0 && count >= maxMails;
       if (!config.isKeepAlive() || this.closeHandler != null || exceed) {
         quitCloseConnection().onComplete(ignored -> {
           handleClosed();
@@ -206,8 +358,9 @@ public class SMTPConnection {
         // recycle
         log.trace("recycle for next use");
         cleanHandlers();
-        lease.recycle();
         expirationTimestamp = expirationTimestampOf(config);
+        idleTimestamp = System.currentTimeMillis();
+        lease.recycle();
         promise.complete();
       }
     } catch (Exception e) {
@@ -223,7 +376,58 @@ public class SMTPConnection {
   Future<Void> quitCloseConnection() {
     quitSent = true;
     setNoUse();
-    return writeLineWithDrain("QUIT", true);
+    log.debug("QUIT");
+    return writeWithDrain(QUIT);
+  }
+
+  /**
+   * check if the connection has been idle in the pool for the configured interval, and reserve it for a NOOP command
+   * which keeps the session alive on the server and detects a connection closed by the server.
+   * <p>
+   * This is called by the pool cleaner for the connections which are not in use, under the lock of the pool, the
+   * command is then sent with {@link #sendIdleNoop()}.
+   *
+   * @param now the current time
+   * @return if a NOOP command must be sent
+   */
+  boolean reserveIdleNoop(long now) {
+    final long interval = config.getIdleNoopIntervalUnit().toMillis(config.getIdleNoopInterval());
+    if (interval <= 0 || inuse || quitSent || !isAvailable() || idleNoop != null || now - idleTimestamp < interval) {
+      return false;
+    }
+    idleNoopPromise = context.promise();
+    // set before the connection can be leased again, see #idleNoop()
+    idleNoop = idleNoopPromise.future();
+    return true;
+  }
+
+  /**
+   * send the NOOP command reserved by {@link #reserveIdleNoop(long)} on the context of the connection, a connection
+   * which fails the command is closed and so removed from the pool.
+   */
+  void sendIdleNoop() {
+    final Promise<Void> promise = idleNoopPromise;
+    idleNoopPromise = null;
+    context.runOnContext(v -> write(NOOP, "NOOP", SMTPPhase.ENVELOPE).onComplete(ar -> {
+      idleNoop = null;
+      if (ar.succeeded() && ar.result().isStatusOk()) {
+        idleTimestamp = System.currentTimeMillis();
+        promise.complete();
+      } else {
+        log.debug("idle connection failed the NOOP command, closing it");
+        shutdown();
+        promise.fail(ar.succeeded() ? ar.result().toException("NOOP command failed") : ar.cause());
+      }
+    }));
+  }
+
+  /**
+   * @return a future completed once the NOOP command sent on the idle connection got its reply, this must be awaited
+   * before sending other commands on a connection taken from the pool
+   */
+  Future<Void> idleNoop() {
+    final Future<Void> noop = idleNoop;
+    return noop == null ? context.succeededFuture() : noop;
   }
 
   void setExceptionHandler(Handler<Throwable> exceptionHandler) {
@@ -261,9 +465,10 @@ public class SMTPConnection {
 
   private void handleError(Throwable t) {
     context.emit(roc -> {
-      Completable<String> currentHandler = commandReplyHandler;
+      Completable<SMTPResponse[]> currentHandler = commandReplyHandler;
       if (currentHandler != null) {
         commandReplyHandler = null;
+        cancelReplyTimer();
         currentHandler.fail(t);
       } else if (log.isDebugEnabled()) {
         log.debug(t.getMessage(), t);
@@ -297,66 +502,121 @@ public class SMTPConnection {
       sb.append("Support STARTTLS: ").append(capa.isStartTLS()).append(", Current connection TLS: ").append(this.isSsl()).append("\n");
       sb.append("Support PIPELINING: ").append(capa.isCapaPipelining()).append("\n");
       sb.append("Support ENHANCEDSTATUSCODES: ").append(capa.isCapaEnhancedStatusCodes()).append("\n");
+      if (capa.getMailMax() > 0 || capa.getRcptMax() > 0 || capa.getRcptDomainMax() > 0) {
+        sb.append("Limits: MAILMAX=").append(capa.getMailMax()).append(" RCPTMAX=").append(capa.getRcptMax())
+          .append(" RCPTDOMAINMAX=").append(capa.getRcptDomainMax()).append("\n");
+      }
       log.debug(sb);
     }
   }
 
-  Future<SMTPResponse[]> writeCommands(List<String> commands) {
-    String cmds = String.join("\r\n", commands);
-    nsHandler.setExpected(commands.size());
-    return doWrite(cmds, -1).map(response -> {
-      try {
-        String[] lines = linePattern.split(response);
-        SMTPResponse[] result = new SMTPResponse[lines.length];
-        for (int i = 0; i < lines.length; i++) {
-          String message = lines[i];
-          result[i] = new SMTPResponse(message);
-        }
-        return result;
-      } finally {
-        nsHandler.setExpected(1);
-      }
-    });
+  /**
+   * write the commands in one go, this is used for PIPELINING.
+   * <p>
+   * The commands are encoded directly into one buffer, and the future is completed with one reply per command,
+   * in the order of the commands.
+   */
+  Future<SMTPResponse[]> writeCommands(List<String> commands, SMTPPhase phase) {
+    int capacity = 0;
+    for (String command : commands) {
+      capacity += command.length() + 2;
+    }
+    Buffer cmds = Buffer.buffer(capacity);
+    for (String command : commands) {
+      cmds.appendString(command).appendString("\r\n");
+    }
+    if (log.isDebugEnabled()) {
+      logCommand(String.join("\r\n", commands), -1);
+    }
+    return doWrite(cmds, commands.size(), phase);
   }
 
   /**
-   * write command without log masking
+   * write command without log masking, the reply timeout of the envelope commands applies
    */
   public Future<SMTPResponse> write(String str) {
-    return doWrite(str, -1).map(SMTPResponse::new);
+    return write(str, -1, SMTPPhase.ENVELOPE);
+  }
+
+  /**
+   * write command without log masking
+   * this method expects a response from SMTP server within the reply timeout of the phase
+   */
+  Future<SMTPResponse> write(String str, SMTPPhase phase) {
+    return write(str, -1, phase);
   }
 
   /**
    * write command with log masking (everything after position {@code blank} is replaced with {@code *})
+   * this method expects a response from SMTP server within the reply timeout of the phase
+   */
+  Future<SMTPResponse> write(String str, int blank, SMTPPhase phase) {
+    if (log.isDebugEnabled()) {
+      logCommand(str, blank);
+    }
+    return doWrite(command(str), 1, phase).map(replies -> replies[0]);
+  }
+
+  /**
+   * write an already encoded command, including the CRLF line terminator
    * this method expects a response from SMTP server
+   *
+   * @param command the encoded command
+   * @param logStr the command as it should be logged
+   * @param phase the phase which defines the reply timeout
    */
-  Future<SMTPResponse> write(String str, int blank) {
-    return doWrite(str, blank).map(SMTPResponse::new);
+  Future<SMTPResponse> write(Buffer command, String logStr, SMTPPhase phase) {
+    if (log.isDebugEnabled()) {
+      logCommand(logStr, -1);
+    }
+    return doWrite(command, 1, phase).map(replies -> replies[0]);
   }
 
-  private Future<String> doWrite(String str, int blank) {
-    Promise<String> promise = context.promise();
-    context.emit(roc -> {
-      if (log.isDebugEnabled()) {
-        String logStr;
-        if (blank >= 0) {
-          StringBuilder sb = new StringBuilder();
-          for (int i = blank; i < str.length(); i++) {
-            sb.append('*');
-          }
-          logStr = str.substring(0, blank) + sb;
-        } else {
-          logStr = str;
-        }
-        // avoid logging large mail body
-        if (logStr.length() < 1000) {
-          log.debug("command: " + logStr);
-        } else {
-          log.debug("command: " + logStr.substring(0, 1000) + "...");
-        }
+  /**
+   * write an already encoded command, including the CRLF line terminator, which is replied with several replies,
+   * e.g. the end of data with LMTP
+   *
+   * @param command the encoded command
+   * @param logStr the command as it should be logged
+   * @param replies the count of replies
+   * @param phase the phase which defines the reply timeout
+   */
+  Future<SMTPResponse[]> write(Buffer command, String logStr, int replies, SMTPPhase phase) {
+    if (log.isDebugEnabled()) {
+      logCommand(logStr, -1);
+    }
+    return doWrite(command, replies, phase);
+  }
+
+  private void logCommand(String str, int blank) {
+    String logStr;
+    if (blank >= 0) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = blank; i < str.length(); i++) {
+        sb.append('*');
       }
+      logStr = str.substring(0, blank) + sb;
+    } else {
+      logStr = str;
+    }
+    // avoid logging large mail body
+    if (logStr.length() < 1000) {
+      log.debug("command: " + logStr);
+    } else {
+      log.debug("command: " + logStr.substring(0, 1000) + "...");
+    }
+  }
+
+  private Future<SMTPResponse[]> doWrite(Buffer command, int expectedReplies, SMTPPhase phase) {
+    bytesWritten += command.length();
+    roundTrips++;
+    Promise<SMTPResponse[]> promise = context.promise();
+    context.emit(roc -> {
       this.commandReplyHandler = promise;
-      ns.write(str + "\r\n").onFailure(t -> {
+      nsHandler.setExpected(expectedReplies);
+      commandStart = System.nanoTime();
+      startReplyTimer(phase);
+      ns.write(command).onFailure(t -> {
         handleError(t);
         shutdown();
       });
@@ -371,6 +631,11 @@ public class SMTPConnection {
     if (mayLog) {
       log.debug(str);
     }
+    return writeWithDrain(command(str));
+  }
+
+  private Future<Void> writeWithDrain(Buffer line) {
+    bytesWritten += line.length();
     Promise<Void> promise = context.promise();
     context.emit(roc -> {
       if (isAvailable()) {
@@ -378,10 +643,10 @@ public class SMTPConnection {
           ns.drainHandler(v -> {
             // avoid getting confused by being called twice
             ns.drainHandler(null);
-            ns.write(str + "\r\n").onComplete(promise);
+            ns.write(line).onComplete(promise);
           });
         } else {
-          ns.write(str + "\r\n").onComplete(promise);
+          ns.write(line).onComplete(promise);
         }
       } else {
         promise.fail("Connection was closed.");
@@ -390,12 +655,47 @@ public class SMTPConnection {
     return promise.future();
   }
 
+  /**
+   * write a chunk of the mail data not expecting a reply, the chunk waits for the drain of the socket when its write
+   * queue is full, and the future completes once the chunk has been written to the socket
+   */
+  Future<Void> writeData(Buffer data) {
+    final Future<Void> write = writeWithDrain(data);
+    final long timeout = SMTPPhase.DATA.timeout(config);
+    if (timeout <= 0 || write.isComplete()) {
+      return write;
+    }
+    // RFC 5321 section 4.5.3.2.5, a server which stops reading the data would hold the connection forever
+    final Promise<Void> promise = context.promise();
+    final long timer = context.setTimer(timeout, id -> {
+      if (!promise.future().isComplete()) {
+        log.debug("the server did not read the mail data after " + timeout + " ms, closing the connection");
+        shutdown();
+        promise.tryFail(new SMTPTimeoutException("Timeout writing the mail data after " + timeout + " ms", timeout));
+      }
+    });
+    write.onComplete(ar -> {
+      context.owner().cancelTimer(timer);
+      // the write may already have failed with the data block timeout
+      if (ar.succeeded()) {
+        promise.tryComplete();
+      } else {
+        promise.tryFail(ar.cause());
+      }
+    });
+    return promise.future();
+  }
+
   boolean isSsl() {
     return ns.isSsl();
   }
 
   Future<Void> upgradeToSsl() {
-    return ns.upgradeToSsl();
+    return ns.upgradeToSsl().andThen(ar -> {
+      if (ar.succeeded()) {
+        tlsSessionStats.record(ns);
+      }
+    });
   }
 
   /**
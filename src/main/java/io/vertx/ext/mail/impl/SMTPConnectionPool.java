@@ -27,6 +27,7 @@ import io.vertx.core.net.NetClient;
 import io.vertx.ext.auth.authentication.UsernamePasswordCredentials;
 import io.vertx.ext.auth.prng.PRNG;
 import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.SMTPCircuitOpenException;
 import io.vertx.ext.mail.StartTLSOptions;
 import io.vertx.ext.mail.impl.sasl.AuthOperationFactory;
 
@@ -52,6 +53,12 @@ public class SMTPConnectionPool {
 
   private boolean closed = false;
   private final AtomicReference<SMTPEndPoint> endPoint = new AtomicReference<>();
+  // kept by the pool, the end point is recreated once all its connections are closed
+  private final TLSSessionStats tlsSessionStats = new TLSSessionStats();
+  private final InFlightBudget inFlightBudget;
+  private final CircuitBreaker circuitBreaker;
+  private final RateLimiter rateLimiter;
+  private final ConcurrencyLimiter concurrencyLimiter;
   private long timerID = -1;
 
   // Useful for testing
@@ -75,7 +82,12 @@ public class SMTPConnectionPool {
     netClient = vertx.createNetClient(config);
     this.prng = new PRNG(vertx);
     this.authOperationFactory = new AuthOperationFactory(prng);
-    if (config.getPoolCleanerPeriod() > 0 && config.isKeepAlive() && config.getKeepAliveTimeout() > 0) {
+    this.inFlightBudget = new InFlightBudget(config.getMaxInFlightBytes(), config.isFailFastOnMaxInFlightBytes());
+    this.circuitBreaker = new CircuitBreaker(config);
+    this.rateLimiter = new RateLimiter(config);
+    this.concurrencyLimiter = new ConcurrencyLimiter(config);
+    if (config.getPoolCleanerPeriod() > 0 && config.isKeepAlive()
+      && (config.getKeepAliveTimeout() > 0 || config.getIdleNoopInterval() > 0)) {
       timerID = vertx.setTimer(poolCleanTimeout(config), this::checkExpired);
     }
   }
@@ -103,7 +115,34 @@ public class SMTPConnectionPool {
   }
 
   Future<SMTPConnection> getConnection(String hostname, Context ctx) {
-    return getConnection0(hostname, ctx, 0);
+    return acquire(hostname, ctx);
+  }
+
+  /**
+   * Gets a connection to send a mail, once the rate limits let the mail through.
+   *
+   * @param recipients the count of recipients of the mail
+   * @param size the encoded size of the mail
+   */
+  Future<SMTPConnection> getConnection(String hostname, Context ctx, int recipients, long size) {
+    return rateLimiter.acquire(recipients, size, (ContextInternal) ctx)
+      .flatMap(v -> acquire(hostname, ctx));
+  }
+
+  private Future<SMTPConnection> acquire(String hostname, Context ctx) {
+    if (!SMTPEvents.connectionAcquireEnabled()) {
+      return getConnection0(hostname, ctx, 0);
+    }
+    final SMTPEvents.ConnectionAcquire event = new SMTPEvents.ConnectionAcquire();
+    event.begin();
+    return getConnection0(hostname, ctx, 0).andThen(ar -> {
+      if (event.shouldCommit()) {
+        event.server = SMTPEvents.server(config);
+        event.succeeded = ar.succeeded();
+        event.reused = ar.succeeded() && ar.result().statistics().isConnectionReused();
+        event.commit();
+      }
+    });
   }
 
   private Future<SMTPConnection> getConnection0(String hostname, Context ctx, final int retryAttempt) {
@@ -113,24 +152,47 @@ public class SMTPConnectionPool {
         return contextInternal.failedFuture("connection pool is closed");
       }
     }
+    final CircuitBreaker.Permit permit;
+    try {
+      permit = circuitBreaker.acquire();
+    } catch (SMTPCircuitOpenException e) {
+      return contextInternal.failedFuture(e);
+    }
 
+    final long start = System.nanoTime();
     return getSMTPEndPoint().requestConnection(contextInternal, config.getConnectTimeout())
+      .onFailure(t -> circuitBreaker.record(permit, t))
       .map(l -> l.get().setLease(l))
       .flatMap(conn -> {
         final Future<SMTPConnection> future;
         final boolean reset;
+        final long acquired = System.nanoTime();
         conn.setInUse();
+        conn.startStatistics(acquired - start);
         if (conn.isInitialized()) {
           reset = true;
-          future = new SMTPReset(conn).start(contextInternal)
-            .map(ignored -> conn);
+          future = conn.idleNoop()
+            .flatMap(ignored -> new SMTPReset(conn).start(contextInternal))
+            .map(ignored -> conn.setResetTime(System.nanoTime() - acquired));
         } else {
           reset = false;
-          future = conn.init()
+          final SMTPEvents.ConnectionCreate event = SMTPEvents.connectionCreateEnabled() ? new SMTPEvents.ConnectionCreate() : null;
+          if (event != null) {
+            event.begin();
+          }
+          final Future<SMTPConnection> handshake = conn.init()
             .flatMap(new SMTPStarter(contextInternal, conn, config, hostname, authOperationFactory, credentialsSupplier)::serverGreeting)
-            .map(ignored -> conn);
+            .map(ignored -> conn.setHandshakeTime(System.nanoTime() - acquired));
+          future = event == null ? handshake : handshake.andThen(ar -> {
+            if (event.shouldCommit()) {
+              event.server = SMTPEvents.server(config);
+              event.ssl = conn.isSsl();
+              event.succeeded = ar.succeeded();
+              event.commit();
+            }
+          });
         }
-        return future.recover(t -> {
+        return future.andThen(ar -> circuitBreaker.record(permit, ar.cause())).recover(t -> {
           // close the connection as it failed either in rset or handshake
           Promise<Void> quitPromise = contextInternal.promise();
           if (t instanceof IOException) {
@@ -140,7 +202,7 @@ public class SMTPConnectionPool {
             conn.quitCloseConnection().onComplete(quitPromise);
           }
           return quitPromise.future().transform(v -> {
-            if (reset && retryAttempt < RSET_MAX_RETRY) {
+            if (reset && retryAttempt < RSET_MAX_RETRY && circuitBreaker.state() == CircuitBreaker.State.CLOSED) {
               log.debug("Failed on RSET, try " + (retryAttempt + 1) + " time");
               return getConnection0(hostname, ctx, retryAttempt + 1);
             }
@@ -152,7 +214,7 @@ public class SMTPConnectionPool {
   }
 
   private SMTPEndPoint getSMTPEndPoint() {
-    return endPoint.accumulateAndGet(endPoint.get(), (p, n) -> p == null ? new SMTPEndPoint(netClient, config, endPoint) : p);
+    return endPoint.accumulateAndGet(endPoint.get(), (p, n) -> p == null ? new SMTPEndPoint(netClient, config, endPoint, tlsSessionStats) : p);
   }
 
   public void close() {
@@ -177,6 +239,8 @@ public class SMTPConnectionPool {
       }
     }
     this.prng.close();
+    inFlightBudget.close();
+    concurrencyLimiter.close();
     return getSMTPEndPoint().doClose()
       .flatMap(list -> {
         List<Future<Void>> futures = list.stream()
@@ -195,6 +259,71 @@ public class SMTPConnectionPool {
     return getSMTPEndPoint().size();
   }
 
+  /**
+   * @return the count of TLS handshakes done by the connections of this pool
+   */
+  public long tlsHandshakes() {
+    return tlsSessionStats.handshakes();
+  }
+
+  /**
+   * @return the count of TLS handshakes which resumed a cached session, only accurate for TLSv1.2 and below, see
+   * {@link TLSSessionStats}
+   */
+  public long tlsResumedHandshakes() {
+    return tlsSessionStats.resumed();
+  }
+
+  /**
+   * @return the estimated size of the mails in flight, when {@link MailConfig#getMaxInFlightBytes()} is set
+   */
+  public long inFlightBytes() {
+    return inFlightBudget.inFlightBytes();
+  }
+
+  /**
+   * @return the count of mails waiting for the mails in flight to be sent
+   */
+  public int inFlightBytesWaiters() {
+    return inFlightBudget.waiting();
+  }
+
+  /**
+   * @return the state of the circuit breaker: {@code CLOSED}, {@code OPEN} or {@code HALF_OPEN}
+   */
+  public String circuitBreakerState() {
+    return circuitBreaker.state().name();
+  }
+
+  /**
+   * @return the count of times the circuit breaker opened
+   */
+  public long circuitBreakerOpenings() {
+    return circuitBreaker.openings();
+  }
+
+  /**
+   * @return the current limit of concurrent mail transactions, when {@link MailConfig#isAdaptiveConcurrency()} is set
+   */
+  public int concurrencyLimit() {
+    return concurrencyLimiter.limit();
+  }
+
+  /**
+   * @return the count of mail transactions in flight, when {@link MailConfig#isAdaptiveConcurrency()} is set
+   */
+  public int concurrencyInFlight() {
+    return concurrencyLimiter.inFlight();
+  }
+
+  ConcurrencyLimiter concurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  InFlightBudget inFlightBudget() {
+    return inFlightBudget;
+  }
+
   public NetClient netClient() {
     return this.netClient;
   }
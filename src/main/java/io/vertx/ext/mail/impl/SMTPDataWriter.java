@@ -0,0 +1,329 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.Map;
+
+/**
+ * Writes the content of a mail after the DATA command.
+ * <p>
+ * The headers, boundaries and body lines are collected into one buffer which is only written to the socket
+ * once it exceeds the chunk size, so that a message goes out in a few large writes instead of one write per
+ * line. The end of data line is written together with the last chunk.
+ */
+class SMTPDataWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(SMTPDataWriter.class);
+
+  // size of the chunks written to the socket, default to 64k.
+  static final int CHUNK_SIZE = Integer.getInteger("vertx.mail.data.chunk.size", 64 * 1024);
+
+  private static final byte[] CRLF = {'\r', '\n'};
+  private static final byte[] HEADER_SEPARATOR = {':', ' '};
+
+  private final ContextInternal context;
+  private final SMTPConnection connection;
+  private final int chunkSize;
+  private Buffer pending;
+  // the state of the raw content across its buffers
+  private boolean rawLineStart = true;
+  private boolean rawCR;
+  private int writes;
+  private long bytesWritten;
+  private long logged;
+
+  SMTPDataWriter(ContextInternal context, SMTPConnection connection) {
+    this(context, connection, CHUNK_SIZE);
+  }
+
+  SMTPDataWriter(ContextInternal context, SMTPConnection connection, int chunkSize) {
+    this.context = context;
+    this.connection = connection;
+    this.chunkSize = chunkSize;
+    this.pending = Buffer.buffer();
+  }
+
+  /**
+   * Appends the headers followed by the empty line that separates them from the body.
+   */
+  SMTPDataWriter headers(MultiMap headers) {
+    fields(headers);
+    pending.appendBytes(CRLF);
+    return this;
+  }
+
+  /**
+   * Appends the headers, without the empty line that ends them.
+   */
+  SMTPDataWriter fields(MultiMap headers) {
+    for (Map.Entry<String, String> header : headers) {
+      pending.appendString(header.getKey()).appendBytes(HEADER_SEPARATOR).appendString(header.getValue()).appendBytes(CRLF);
+      if (log.isDebugEnabled()) {
+        logLine(header.getKey() + ": " + header.getValue());
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Appends one line, the CRLF line terminator is added.
+   */
+  SMTPDataWriter line(String line) {
+    pending.appendString(line).appendBytes(CRLF);
+    if (log.isDebugEnabled()) {
+      logLine(line);
+    }
+    return this;
+  }
+
+  private void logLine(String line) {
+    // avoid logging large mail body
+    if (logged < 1000) {
+      logged += line.length();
+      log.debug(line);
+    }
+  }
+
+  /**
+   * Appends a body split in lines with '\n', lines starting with a '.' are dot-stuffed.
+   * <p>
+   * Full chunks are written to the socket while the body is appended, the returned future completes once the
+   * socket accepted them.
+   */
+  Future<Void> body(String body) {
+    Promise<Void> promise = context.promise();
+    body(body, 0, promise);
+    return promise.future();
+  }
+
+  private void body(String body, int from, Promise<Void> promise) {
+    // trailing empty lines are dropped, like String.split() does
+    int length = body.length();
+    while (length > 0 && body.charAt(length - 1) == '\n') {
+      length--;
+    }
+    if (length == 0 && !body.isEmpty()) {
+      promise.complete();
+      return;
+    }
+    int start = from;
+    while (start <= length) {
+      int end = body.indexOf('\n', start);
+      if (end < 0 || end > length) {
+        end = length;
+      }
+      if (start < length && body.charAt(start) == '.') {
+        pending.appendByte((byte) '.');
+      }
+      line(body.substring(start, end));
+      final int next = end + 1;
+      if (pending.length() >= chunkSize) {
+        flush().onComplete(ar -> {
+          if (ar.succeeded()) {
+            body(body, next, promise);
+          } else {
+            promise.fail(ar.cause());
+          }
+        });
+        return;
+      }
+      start = next;
+    }
+    promise.complete();
+  }
+
+  /**
+   * Appends the content of a stream, the stream is paused while a full chunk is written to the socket.
+   */
+  Future<Void> stream(ReadStream<Buffer> stream) {
+    Promise<Void> promise = context.promise();
+    stream.exceptionHandler(promise::tryFail);
+    stream.endHandler(v -> promise.tryComplete());
+    stream.handler(buffer -> {
+      pending.appendBuffer(buffer);
+      if (pending.length() >= chunkSize) {
+        stream.pause();
+        flush().onComplete(ar -> {
+          if (ar.succeeded()) {
+            stream.resume();
+          } else {
+            discard(stream);
+            promise.tryFail(ar.cause());
+          }
+        });
+      }
+    });
+    return promise.future();
+  }
+
+  /**
+   * Appends raw message content, lines starting with a '.' are dot-stuffed and bare LF line terminators are
+   * converted to CRLF, the content is otherwise written as is.
+   * <p>
+   * Full chunks are written to the socket while the content is appended, the returned future completes once the
+   * socket accepted them.
+   */
+  Future<Void> raw(Buffer buffer) {
+    Promise<Void> promise = context.promise();
+    raw(buffer, 0, promise);
+    return promise.future();
+  }
+
+  private void raw(Buffer buffer, int from, Promise<Void> promise) {
+    final int to = Math.min(buffer.length(), from + chunkSize);
+    appendRaw(buffer, from, to);
+    if (to == buffer.length()) {
+      promise.complete();
+      return;
+    }
+    flush().onComplete(ar -> {
+      if (ar.succeeded()) {
+        raw(buffer, to, promise);
+      } else {
+        promise.fail(ar.cause());
+      }
+    });
+  }
+
+  /**
+   * Like {@link #raw(Buffer)} for the content of a stream, the stream is paused while a full chunk is written to the
+   * socket.
+   */
+  Future<Void> rawStream(ReadStream<Buffer> stream) {
+    Promise<Void> promise = context.promise();
+    stream.exceptionHandler(promise::tryFail);
+    stream.endHandler(v -> promise.tryComplete());
+    stream.handler(buffer -> {
+      appendRaw(buffer, 0, buffer.length());
+      if (pending.length() >= chunkSize) {
+        stream.pause();
+        flush().onComplete(ar -> {
+          if (ar.succeeded()) {
+            stream.resume();
+          } else {
+            discard(stream);
+            promise.tryFail(ar.cause());
+          }
+        });
+      }
+    });
+    return promise.future();
+  }
+
+  /**
+   * Detaches from a stream whose content can not be written anymore, so that it is not left paused: a file is closed,
+   * any other stream is resumed and its remaining content dropped.
+   */
+  private static void discard(ReadStream<Buffer> stream) {
+    stream.exceptionHandler(null);
+    stream.endHandler(null);
+    stream.handler(null);
+    if (stream instanceof AsyncFile) {
+      ((AsyncFile) stream).close();
+    } else {
+      stream.resume();
+    }
+  }
+
+  /**
+   * Terminates the last line of the raw content, so that the end of data line starts a line.
+   */
+  SMTPDataWriter endRaw() {
+    if (!rawLineStart) {
+      pending.appendBytes(CRLF);
+      rawLineStart = true;
+    }
+    return this;
+  }
+
+  private void appendRaw(Buffer buffer, int from, int to) {
+    int start = from;
+    for (int i = from; i < to; i++) {
+      final byte b = buffer.getByte(i);
+      if (rawLineStart && b == '.') {
+        pending.appendBuffer(buffer, start, i - start).appendByte((byte) '.');
+        start = i;
+      } else if (b == '\n' && !rawCR) {
+        pending.appendBuffer(buffer, start, i - start).appendByte((byte) '\r');
+        start = i;
+      }
+      rawCR = b == '\r';
+      rawLineStart = b == '\n';
+    }
+    pending.appendBuffer(buffer, start, to - start);
+  }
+
+  /**
+   * Writes what has been appended so far to the socket.
+   */
+  Future<Void> flush() {
+    if (pending.length() == 0) {
+      return context.succeededFuture();
+    }
+    Buffer chunk = pending;
+    pending = Buffer.buffer(chunkSize);
+    writes++;
+    bytesWritten += chunk.length();
+    return connection.writeData(chunk);
+  }
+
+  /**
+   * Writes the remaining content together with the end of data line, and waits for the reply of the server.
+   */
+  Future<SMTPResponse> end() {
+    return end(1).map(replies -> replies[0]);
+  }
+
+  /**
+   * Like {@link #end()}, and waits for several replies of the server, one per accepted recipient with LMTP.
+   */
+  Future<SMTPResponse[]> end(int replies) {
+    Buffer chunk = pending.appendBuffer(SMTPConnection.END_OF_DATA);
+    pending = null;
+    writes++;
+    bytesWritten += chunk.length();
+    if (log.isDebugEnabled()) {
+      log.debug("mail data of " + bytesWritten + " bytes sent in " + writes + " writes");
+    }
+    return connection.write(chunk, ".", replies, SMTPPhase.END_OF_DATA);
+  }
+
+  /**
+   * @return the count of writes to the socket, each of them being flushed
+   */
+  int writes() {
+    return writes;
+  }
+
+  /**
+   * @return the count of bytes written to the socket
+   */
+  long bytesWritten() {
+    return bytesWritten;
+  }
+
+}
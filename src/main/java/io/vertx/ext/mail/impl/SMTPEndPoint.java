@@ -18,12 +18,15 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.Future;
 import io.vertx.core.internal.ContextInternal;
 import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
 import io.vertx.core.internal.pool.ConnectResult;
 import io.vertx.core.internal.pool.Lease;
 import io.vertx.core.internal.pool.ConnectionPool;
 import io.vertx.core.internal.pool.PoolConnector;
 import io.vertx.ext.mail.MailConfig;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -40,11 +43,13 @@ class SMTPEndPoint implements PoolConnector<SMTPConnection> {
   private final MailConfig config;
   private final ConnectionPool<SMTPConnection> pool;
   private final AtomicReference<SMTPEndPoint> endPoint;
+  private final TLSSessionStats tlsSessionStats;
 
-  SMTPEndPoint(NetClient netClient, MailConfig config, AtomicReference<SMTPEndPoint> endPoint) {
+  SMTPEndPoint(NetClient netClient, MailConfig config, AtomicReference<SMTPEndPoint> endPoint, TLSSessionStats tlsSessionStats) {
     int maxSockets = config.getMaxPoolSize();
     this.config = config;
     this.netClient = netClient;
+    this.tlsSessionStats = tlsSessionStats;
     this.pool = ConnectionPool.pool(this, new int[] {maxSockets}, -1);
     this.endPoint = endPoint;
   }
@@ -60,22 +65,45 @@ class SMTPEndPoint implements PoolConnector<SMTPConnection> {
   }
 
   Future<List<SMTPConnection>> checkExpired2() {
-    return Future.future(p -> pool.evict(conn -> !conn.isValid(), p));
+    final long now = System.currentTimeMillis();
+    final List<SMTPConnection> idle = new ArrayList<>();
+    // the predicate is only tested on the connections not in use, under the lock of the pool, it only selects the
+    // idle connections, their NOOP commands are sent once the lock is released
+    return Future.<List<SMTPConnection>>future(p -> pool.evict(conn -> {
+      if (!conn.isValid()) {
+        return true;
+      }
+      if (conn.reserveIdleNoop(now)) {
+        idle.add(conn);
+      }
+      return false;
+    }, p)).andThen(ar -> idle.forEach(SMTPConnection::sendIdleNoop));
   }
 
   private final AtomicInteger refCount = new AtomicInteger();
 
   @Override
   public Future<ConnectResult<SMTPConnection>> connect(ContextInternal context, Listener listener) {
-    return netClient.connect(config.getPort(), config.getHostname())
+    final long connectStart = System.nanoTime();
+    final Future<NetSocket> connect;
+    if (config.getDomainSocketPath() != null) {
+      // the hostname is the server name of SSL
+      connect = netClient.connect(SocketAddress.domainSocketAddress(config.getDomainSocketPath()), config.getHostname());
+    } else {
+      connect = netClient.connect(config.getPort(), config.getHostname());
+    }
+    return connect
       .map(conn -> {
+        if (conn.isSsl()) {
+          tlsSessionStats.record(conn);
+        }
         refCount.incrementAndGet();
-        SMTPConnection connection = new SMTPConnection(config, conn, context, v -> {
+        SMTPConnection connection = new SMTPConnection(config, conn, context, tlsSessionStats, v -> {
           if (refCount.decrementAndGet() == 0) {
             cleanup();
           }
           listener.onRemove();
-        });
+        }).setConnectTime(System.nanoTime() - connectStart);
         return new ConnectResult<>(connection, 1, 0);
       });
   }
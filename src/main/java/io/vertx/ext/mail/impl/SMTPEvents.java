@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.ext.mail.MailConfig;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.Optional;
+
+/**
+ * The JDK Flight Recorder events of the connection pool, the connections and the mail transactions.
+ * <p>
+ * The events are disabled unless a recording enables them, e.g. with {@code -XX:StartFlightRecording}, and their
+ * fields are only set when {@link Event#shouldCommit()} is true.
+ * <p>
+ * The {@code jdk.jfr} module is optional, the event classes are only loaded when it is available and the event is
+ * enabled, as checked by the {@code *Enabled()} methods before an event is created.
+ */
+final class SMTPEvents {
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  private SMTPEvents() {
+  }
+
+  private static boolean isAvailable() {
+    final Optional<Module> jfr = ModuleLayer.boot().findModule("jdk.jfr");
+    return jfr.isPresent() && SMTPEvents.class.getModule().canRead(jfr.get());
+  }
+
+  static boolean connectionAcquireEnabled() {
+    return AVAILABLE && Types.CONNECTION_ACQUIRE.isEnabled();
+  }
+
+  static boolean connectionCreateEnabled() {
+    return AVAILABLE && Types.CONNECTION_CREATE.isEnabled();
+  }
+
+  static boolean connectionCloseEnabled() {
+    return AVAILABLE && Types.CONNECTION_CLOSE.isEnabled();
+  }
+
+  static boolean transactionEnabled() {
+    return AVAILABLE && Types.TRANSACTION.isEnabled();
+  }
+
+  /**
+   * The types of the events, initialized on first use only when {@code jdk.jfr} is available.
+   */
+  private static final class Types {
+    static final EventType CONNECTION_ACQUIRE = EventType.getEventType(ConnectionAcquire.class);
+    static final EventType CONNECTION_CREATE = EventType.getEventType(ConnectionCreate.class);
+    static final EventType CONNECTION_CLOSE = EventType.getEventType(ConnectionClose.class);
+    static final EventType TRANSACTION = EventType.getEventType(Transaction.class);
+  }
+
+  @Name("io.vertx.mail.ConnectionAcquire")
+  @Label("SMTP Connection Acquire")
+  @Category({"Vert.x", "Mail"})
+  @Description("A connection acquired from the pool, including the connect and handshake of a new connection, or the RSET of a reused one")
+  @StackTrace(false)
+  static final class ConnectionAcquire extends Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Reused")
+    boolean reused;
+
+    @Label("Succeeded")
+    boolean succeeded;
+  }
+
+  @Name("io.vertx.mail.ConnectionCreate")
+  @Label("SMTP Connection Create")
+  @Category({"Vert.x", "Mail"})
+  @Description("The greeting, EHLO, STARTTLS and AUTH of a new connection")
+  @StackTrace(false)
+  static final class ConnectionCreate extends Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("TLS")
+    boolean ssl;
+
+    @Label("Succeeded")
+    boolean succeeded;
+  }
+
+  @Name("io.vertx.mail.ConnectionClose")
+  @Label("SMTP Connection Close")
+  @Category({"Vert.x", "Mail"})
+  @Description("A connection closed")
+  @StackTrace(false)
+  static final class ConnectionClose extends Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Mails Sent")
+    long mailsSent;
+
+    @Label("Lifetime")
+    @Timespan(Timespan.NANOSECONDS)
+    long lifetime;
+
+    @Label("Unexpected")
+    @Description("The socket was closed without a QUIT")
+    boolean unexpected;
+  }
+
+  @Name("io.vertx.mail.Transaction")
+  @Label("SMTP Transaction")
+  @Category({"Vert.x", "Mail"})
+  @Description("A mail transaction, from MAIL FROM to the reply to the end of data")
+  @StackTrace(false)
+  static final class Transaction extends Event {
+
+    @Label("Server")
+    String server;
+
+    @Label("Message ID")
+    String messageId;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    @Label("Recipients")
+    int recipients;
+
+    @Label("Accepted Recipients")
+    int acceptedRecipients;
+
+    @Label("Reply Code")
+    @Description("The reply code of the end of data, or of the failed command, 0 for other failures")
+    int replyCode;
+  }
+
+  static String server(MailConfig config) {
+    if (config.getDomainSocketPath() != null) {
+      return "unix:" + config.getDomainSocketPath();
+    }
+    return config.getHostname() + ":" + config.getPort();
+  }
+
+}
@@ -25,7 +25,7 @@ import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.StartTLSOptions;
 
 /**
- * Handle welcome line, EHLO/HELO, capabilities
+ * Handle welcome line, EHLO/HELO, or LHLO with LMTP, capabilities
  * and STARTTLS if necessary
  *
  * @author <a href="http://oss.lehmann.cx/">Alexander Lehmann</a>
@@ -50,10 +50,10 @@ class SMTPInitialDialogue {
     this.connection.setExceptionHandler(promise::fail);
   }
 
-  public Future<Void> start(final String serverGreeting) {
-    SMTPResponse response = new SMTPResponse(serverGreeting);
+  public Future<Void> start(final SMTPResponse response) {
     if (response.isStatusOk()) {
-      if (config.isDisableEsmtp()) {
+      // LMTP has no HELO
+      if (config.isDisableEsmtp() && !config.isLmtp()) {
         helo();
       } else {
         ehlo();
@@ -65,7 +65,8 @@ class SMTPInitialDialogue {
   }
 
   private void ehlo() {
-    connection.write("EHLO " + hostname).onComplete(ar -> {
+    final String command = config.isLmtp() ? "LHLO" : "EHLO";
+    connection.write(command + " " + hostname, SMTPPhase.EHLO).onComplete(ar -> {
       if (ar.failed()) {
         promise.fail(ar.cause());
         return;
@@ -81,6 +82,8 @@ class SMTPInitialDialogue {
         } else {
           finished();
         }
+      } else if (config.isLmtp()) {
+        promise.fail(response.toException("LHLO failed."));
       } else {
         // if EHLO fails, assume we have to do HELO
         // if the command is not supported, the response is probably
@@ -92,7 +95,7 @@ class SMTPInitialDialogue {
   }
 
   private void helo() {
-    connection.write("HELO " + hostname).onComplete(ar -> {
+    connection.write("HELO " + hostname, SMTPPhase.EHLO).onComplete(ar -> {
       if (ar.failed()) {
         promise.fail(ar.cause());
         return;
@@ -110,7 +113,7 @@ class SMTPInitialDialogue {
    * run STARTTLS command and redo EHLO
    */
   private void startTLS() {
-    connection.write("STARTTLS")
+    connection.write("STARTTLS", SMTPPhase.EHLO)
       .flatMap(ignored -> connection.upgradeToSsl())
       .onComplete(ar -> {
         if (ar.failed()) {
@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.ext.mail.MailConfig;
+
+/**
+ * The phases of a SMTP session the client waits for a reply in, or for the server to read the mail data, each of them
+ * has its own timeout.
+ * <p>
+ * See: https://datatracker.ietf.org/doc/html/rfc5321#section-4.5.3.2
+ */
+enum SMTPPhase {
+
+  /**
+   * The 220 greeting of the server.
+   */
+  GREETING("greeting"),
+  /**
+   * The EHLO, HELO and STARTTLS commands.
+   */
+  EHLO("EHLO"),
+  /**
+   * The AUTH command and the continuation lines of the authentication.
+   */
+  AUTH("AUTH"),
+  /**
+   * The MAIL, RCPT, DATA and RSET commands.
+   */
+  ENVELOPE("envelope"),
+  /**
+   * The chunks of the mail data, the server reads them.
+   */
+  DATA("data"),
+  /**
+   * The end of data line terminating the mail data.
+   */
+  END_OF_DATA("end of data");
+
+  private final String description;
+
+  SMTPPhase(String description) {
+    this.description = description;
+  }
+
+  /**
+   * @param config the MailConfig
+   * @return the reply timeout of this phase in milliseconds, {@code 0} if there is no timeout
+   */
+  long timeout(MailConfig config) {
+    final int timeout;
+    switch (this) {
+      case GREETING:
+        timeout = config.getGreetingTimeout();
+        break;
+      case EHLO:
+        timeout = config.getEhloTimeout();
+        break;
+      case AUTH:
+        timeout = config.getAuthTimeout();
+        break;
+      case ENVELOPE:
+        timeout = config.getEnvelopeTimeout();
+        break;
+      case DATA:
+        timeout = config.getDataBlockTimeout();
+        break;
+      default:
+        timeout = config.getEndOfDataTimeout();
+        break;
+    }
+    return timeout <= 0 ? 0L : config.getReplyTimeoutUnit().toMillis(timeout);
+  }
+
+  @Override
+  public String toString() {
+    return description;
+  }
+
+}
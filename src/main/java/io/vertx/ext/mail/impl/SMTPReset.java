@@ -37,7 +37,7 @@ class SMTPReset {
   Future<Void> start(ContextInternal contextInternal) {
     Promise<Void> promise = contextInternal.promise();
     connection.setExceptionHandler(promise::fail);
-    connection.write("RSET").onComplete(ar -> {
+    connection.write(SMTPConnection.RSET, "RSET", SMTPPhase.ENVELOPE).onComplete(ar -> {
       if (ar.failed()) {
         promise.fail(ar.cause());
         return;
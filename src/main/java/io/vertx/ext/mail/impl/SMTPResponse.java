@@ -16,14 +16,21 @@
 
 package io.vertx.ext.mail.impl;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.mail.SMTPException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * This represents the response from SMTP server.
+ * <p>
+ * A response is either created from the reply string, or directly by the {@link MultilineParser} from the
+ * {@link Buffer} slices of each reply line, in which case the reply code is read from the bytes and the
+ * reply text is only converted to a String when it is requested.
  *
  * See: https://datatracker.ietf.org/doc/html/rfc5321#section-4.2
  *
@@ -32,12 +39,27 @@ import java.util.Objects;
 public class SMTPResponse {
 
   private final int replyCode;
-  private final String message;
+  private final List<Buffer> lines;
+  private String message;
 
   public SMTPResponse(String message) {
     Objects.requireNonNull(message, "SMTP response should not be null.");
     this.replyCode = getStatusCode(message);
     this.message = message;
+    this.lines = null;
+  }
+
+  /**
+   * Creates a response from the lines of one reply as received from the server.
+   *
+   * @param lines the reply lines, without the line terminators
+   */
+  SMTPResponse(List<Buffer> lines) {
+    if (Objects.requireNonNull(lines, "SMTP response should not be null.").isEmpty()) {
+      throw new IllegalArgumentException("SMTP response should have at least one line.");
+    }
+    this.replyCode = parseStatusCode(lines.get(0));
+    this.lines = lines;
   }
 
   private static int getStatusCode(String message) {
@@ -54,7 +76,113 @@ public class SMTPResponse {
     }
   }
 
+  private static int parseStatusCode(Buffer line) {
+    if (line.length() < 4) {
+      return 500;
+    }
+    byte sep = line.getByte(3);
+    if (sep != ' ' && sep != '-') {
+      return 500;
+    }
+    int code = 0;
+    for (int i = 0; i < 3; i++) {
+      int digit = line.getByte(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return 500;
+      }
+      code = code * 10 + digit;
+    }
+    return code;
+  }
+
+  /**
+   * Reads the enhanced status code (RFC 3463) at the start of the reply text, if there is one.
+   *
+   * @param line the first reply line
+   * @return the enhanced status code like {@code 2.1.0}, or {@code null}
+   */
+  private static String parseEnhancedStatusCode(Buffer line) {
+    final int len = line.length();
+    int i = 4;
+    if (len < i + 5) {
+      return null;
+    }
+    byte clazz = line.getByte(i);
+    if ((clazz != '2' && clazz != '4' && clazz != '5') || line.getByte(i + 1) != '.') {
+      return null;
+    }
+    i += 2;
+    for (int part = 0; part < 2; part++) {
+      int start = i;
+      while (i < len && i - start < 3 && isDigit(line.getByte(i))) {
+        i++;
+      }
+      if (i == start) {
+        return null;
+      }
+      if (part == 0) {
+        if (i >= len || line.getByte(i) != '.') {
+          return null;
+        }
+        i++;
+      }
+    }
+    if (i < len && line.getByte(i) != ' ') {
+      return null;
+    }
+    return line.getString(4, i);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  /**
+   * @return the 3 digits reply code, 500 if the reply is malformed
+   */
+  public int getReplyCode() {
+    return replyCode;
+  }
+
+  /**
+   * @return the enhanced status code like {@code 2.1.0} found at the start of the reply text, or {@code null}
+   */
+  public String getEnhancedStatusCode() {
+    return parseEnhancedStatusCode(lines != null ? lines.get(0) : Buffer.buffer(getLines().get(0)));
+  }
+
+  /**
+   * @return the reply lines without the line terminators
+   */
+  public List<String> getLines() {
+    if (lines == null) {
+      return Arrays.asList(message.split("\n"));
+    }
+    List<String> result = new ArrayList<>(lines.size());
+    for (Buffer line : lines) {
+      result.add(line.toString());
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * @return the reply as String, multi-lines replies are joined with '\n'
+   */
   public String getValue() {
+    if (message == null) {
+      if (lines.size() == 1) {
+        message = lines.get(0).toString();
+      } else {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+          if (i > 0) {
+            sb.append('\n');
+          }
+          sb.append(lines.get(i).toString());
+        }
+        message = sb.toString();
+      }
+    }
     return message;
   }
 
@@ -74,8 +202,12 @@ public class SMTPResponse {
     if (isStatusOk()) {
       throw new IllegalStateException("Status is OK, no exceptions");
     }
-    List<String> replyLines = Arrays.asList(this.message.split("\n"));
-    return new SMTPException(message, replyCode, replyLines, supportEnhancementStatusCode);
+    return new SMTPException(message, replyCode, getLines(), supportEnhancementStatusCode);
+  }
+
+  @Override
+  public String toString() {
+    return getValue();
   }
 
 }
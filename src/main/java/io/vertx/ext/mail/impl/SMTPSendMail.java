@@ -25,19 +25,27 @@ import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.MailMessage;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.SMTPException;
 import io.vertx.ext.mail.mailencoder.EmailAddress;
 import io.vertx.ext.mail.mailencoder.EncodedPart;
+import io.vertx.ext.mail.mailencoder.RawPart;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class SMTPSendMail {
 
   private static final Logger log = LoggerFactory.getLogger(SMTPSendMail.class);
-  private static final Pattern linePattern = Pattern.compile("\r\n");
+
+  // the queue id in the reply of Postfix "queued as <id>", or of Exim "id=<id>"
+  private static final Pattern QUEUE_ID = Pattern.compile("(?:queued as|\\bid=)\\s*([^\\s]+)", Pattern.CASE_INSENSITIVE);
 
   private final ContextInternal context;
   private final SMTPConnection connection;
@@ -45,25 +53,155 @@ public class SMTPSendMail {
   private final MailConfig config;
   private final MailResult mailResult;
   private final EncodedPart encodedPart;
+  private final List<String> recipients;
+  private final List<String> permanentRecipientFailures = new ArrayList<>();
+  private final List<String> transientRecipientFailures = new ArrayList<>();
+  private final List<String> deferredRecipients = new ArrayList<>();
+  private boolean tooManyRecipients;
+  private volatile boolean endOfDataSent;
   private final AtomicLong written = new AtomicLong();
+  private long transactionStart;
+  private int transactionRecipients;
+  private int endOfDataReplyCode;
+  private long envelopeEnd;
+  private long dataEnd;
+  private long replyLatency;
 
   public SMTPSendMail(ContextInternal context, SMTPConnection connection, MailMessage email, MailConfig config,
                       EncodedPart encodedPart, String messageId) {
+    this(context, connection, email, config, encodedPart, messageId, null);
+  }
+
+  /**
+   * @param recipients the recipients of the mail transaction, or {@code null} for all the recipients of the mail
+   */
+  SMTPSendMail(ContextInternal context, SMTPConnection connection, MailMessage email, MailConfig config,
+               EncodedPart encodedPart, String messageId, List<String> recipients) {
     this.context = context;
     this.connection = connection;
     this.email = email;
     this.config = config;
     this.mailResult = new MailResult();
     this.encodedPart = encodedPart;
+    this.recipients = recipients;
     this.mailResult.setMessageID(messageId);
   }
 
+  /**
+   * @return the recipients refused with a permanent reply to RCPT
+   */
+  List<String> permanentRecipientFailures() {
+    return permanentRecipientFailures;
+  }
+
+  /**
+   * @return the recipients refused with a transient reply to RCPT
+   */
+  List<String> transientRecipientFailures() {
+    return transientRecipientFailures;
+  }
+
+  /**
+   * @return the max latency of the replies of the server during the transaction, in nanos
+   */
+  long replyLatency() {
+    return replyLatency;
+  }
+
+  /**
+   * @return if the end of data line has been written, the server may then have accepted the mail even when its reply
+   * was not received
+   */
+  boolean endOfDataSent() {
+    return endOfDataSent;
+  }
+
+  /**
+   * @return the recipients left for another mail transaction, over the max recipients per transaction or refused
+   * with a 452 reply after other recipients were accepted
+   */
+  List<String> deferredRecipients() {
+    return deferredRecipients;
+  }
+
+  /**
+   * @return the max recipients of the transaction, the RCPTMAX limit announced by the server when it is lower than
+   * {@link MailConfig#getMaxRecipientsPerTransaction()}
+   */
+  private int maxRecipients() {
+    final int max = config.getMaxRecipientsPerTransaction();
+    final int rcptMax = connection.getCapa().getRcptMax();
+    if (rcptMax > 0 && (max <= 0 || rcptMax < max)) {
+      return rcptMax;
+    }
+    return max;
+  }
+
+  /**
+   * Selects the recipients of the transaction within the max recipients and the RCPTDOMAINMAX limit of the server,
+   * the other recipients are deferred to the next transaction.
+   */
+  private List<String> transactionRecipients(List<String> toSend) {
+    final int maxRecipients = maxRecipients();
+    final int maxDomains = connection.getCapa().getRcptDomainMax();
+    if ((maxRecipients <= 0 || toSend.size() <= maxRecipients) && maxDomains <= 0) {
+      return toSend;
+    }
+    final List<String> selected = new ArrayList<>();
+    final Set<String> domains = new HashSet<>();
+    for (String r : toSend) {
+      final String domain = r.substring(r.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+      if ((maxRecipients > 0 && selected.size() >= maxRecipients)
+        || (maxDomains > 0 && !domains.contains(domain) && domains.size() >= maxDomains)) {
+        deferredRecipients.add(r);
+      } else {
+        domains.add(domain);
+        selected.add(r);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * RFC 5321 section 4.5.3.1.10, a server refusing more recipients replies 452 and the client sends the mail to the
+   * refused recipients in another transaction.
+   */
+  private boolean isTooManyRecipients(SMTPResponse response) {
+    if (response.getReplyCode() == 452 && !mailResult.getRecipients().isEmpty()) {
+      tooManyRecipients = true;
+    }
+    return tooManyRecipients;
+  }
+
   /**
    * Starts a mail transaction.
    */
   public Future<MailResult> startMailTransaction() {
+    final SMTPEvents.Transaction event = SMTPEvents.transactionEnabled() ? new SMTPEvents.Transaction() : null;
+    if (event != null) {
+      event.begin();
+    }
+    transactionStart = System.nanoTime();
+    connection.startReplyLatency();
     return sendMailEvenlope()
-      .flatMap(this::sendMailData);
+      .flatMap(this::sendMailData)
+      .andThen(ar -> {
+        // read before the connection is returned to the pool
+        replyLatency = connection.maxReplyLatency();
+        if (event != null && event.shouldCommit()) {
+          event.server = SMTPEvents.server(config);
+          event.messageId = mailResult.getMessageID();
+          event.size = encodedPart.size();
+          event.recipients = transactionRecipients;
+          event.acceptedRecipients = mailResult.getRecipients().size();
+          if (ar.succeeded()) {
+            event.replyCode = endOfDataReplyCode;
+          } else if (ar.cause() instanceof SMTPException) {
+            event.replyCode = ((SMTPException) ar.cause()).getReplyCode();
+          }
+          event.commit();
+        }
+      });
   }
 
   /**
@@ -90,7 +228,8 @@ public class SMTPSendMail {
 
   private String sizeParameter() {
     final String sizeParameter;
-    if (connection.getCapa().getSize() > 0) {
+    // the size of a streamed raw message is unknown
+    if (connection.getCapa().getSize() > 0 && encodedPart.size() > 0) {
       sizeParameter = " SIZE=" + encodedPart.size();
     } else {
       sizeParameter = "";
@@ -98,7 +237,7 @@ public class SMTPSendMail {
     return sizeParameter;
   }
 
-  private List<String> allRecipients() {
+  static List<String> allRecipients(MailMessage email) {
     List<String> recipientAddrs = new ArrayList<>();
     if (email.getTo() != null) {
       recipientAddrs.addAll(email.getTo());
@@ -110,13 +249,13 @@ public class SMTPSendMail {
       recipientAddrs.addAll(email.getBcc());
     }
     return recipientAddrs.stream().map(r -> {
-      final String email;
+      final String address;
       if (EmailAddress.POSTMASTER.equalsIgnoreCase(r)) {
-        email = r;
+        address = r;
       } else {
-        email = new EmailAddress(r).getEmail();
+        address = new EmailAddress(r).getEmail();
       }
-      return email;
+      return address;
     }).collect(Collectors.toList());
   }
 
@@ -125,13 +264,16 @@ public class SMTPSendMail {
     try {
       if (checkSize()) {
         final String mailFromLine = "MAIL FROM:<" + mailFromAddress() + ">" + sizeParameter();
-        final List<String> allRecipients = allRecipients();
+        final List<String> allRecipients = transactionRecipients(recipients != null ? recipients : allRecipients(email));
+        transactionRecipients = allRecipients.size();
         if (config.isPipelining() && connection.getCapa().isCapaPipelining()) {
-          final List<String> groupCommands = new ArrayList<>();
+          final List<String> groupCommands = new ArrayList<>(allRecipients.size() + 2);
           groupCommands.add(mailFromLine);
-          groupCommands.addAll(allRecipients.stream().map(r -> "RCPT TO:<" + r + ">").collect(Collectors.toList()));
+          for (String r : allRecipients) {
+            groupCommands.add("RCPT TO:<" + r + ">");
+          }
           groupCommands.add("DATA");
-          connection.writeCommands(groupCommands).onComplete(ar -> {
+          connection.writeCommands(groupCommands, SMTPPhase.ENVELOPE).onComplete(ar -> {
             if (ar.failed()) {
               envelopePromise.fail(ar.cause());
               return;
@@ -151,9 +293,12 @@ public class SMTPSendMail {
                 } else if (i < evenlopeResult.length - 1) {
                   if (response.isStatusOk()) {
                     mailResult.getRecipients().add(allRecipients.get(i - 1));
+                  } else if (isTooManyRecipients(response)) {
+                    deferredRecipients.add(allRecipients.get(i - 1));
                   } else {
+                    SMTPException e = recipientFailed(allRecipients.get(i - 1), response);
                     if (!config.isAllowRcptErrors()) {
-                      envelopePromise.fail(response.toException("recipient address not accepted", connection.getCapa().isCapaEnhancedStatusCodes()));
+                      envelopePromise.fail(e);
                       return;
                     }
                   }
@@ -193,7 +338,7 @@ public class SMTPSendMail {
 
   private Future<Void> sendMailFrom(String mailFromLine) {
     Promise<Void> promise = context.promise();
-    connection.write(mailFromLine).onComplete(ar -> {
+    connection.write(mailFromLine, SMTPPhase.ENVELOPE).onComplete(ar -> {
       if (log.isDebugEnabled()) {
         written.getAndAdd(mailFromLine.length());
       }
@@ -213,10 +358,15 @@ public class SMTPSendMail {
   }
 
   private Future<Void> sendRcptTo(String email) {
+    if (tooManyRecipients) {
+      // the server refuses more recipients, no need to send the next ones
+      deferredRecipients.add(email);
+      return context.succeededFuture();
+    }
     Promise<Void> promise = context.promise();
     try {
       final String line =  "RCPT TO:<" + email + ">";
-      connection.write(line).onComplete(ar -> {
+      connection.write(line, SMTPPhase.ENVELOPE).onComplete(ar -> {
         if (log.isDebugEnabled()) {
           written.getAndAdd(line.length());
         }
@@ -230,11 +380,15 @@ public class SMTPSendMail {
           if (response.isStatusOk()) {
             mailResult.getRecipients().add(email);
             promise.complete();
+          } else if (isTooManyRecipients(response)) {
+            deferredRecipients.add(email);
+            promise.complete();
           } else {
+            SMTPException e = recipientFailed(email, response);
             if (config.isAllowRcptErrors()) {
               promise.complete();
             } else {
-              promise.fail(response.toException("recipient address not accepted", connection.getCapa().isCapaEnhancedStatusCodes()));
+              promise.fail(e);
             }
           }
         } catch (Exception e) {
@@ -247,11 +401,21 @@ public class SMTPSendMail {
     return promise.future();
   }
 
+  private SMTPException recipientFailed(String recipient, SMTPResponse response) {
+    SMTPException e = response.toException("recipient address not accepted", connection.getCapa().isCapaEnhancedStatusCodes());
+    if (e.isPermanent()) {
+      permanentRecipientFailures.add(recipient);
+    } else {
+      transientRecipientFailures.add(recipient);
+    }
+    return e;
+  }
+
   private Future<Boolean> sendDataCmd() {
     Promise<Boolean> promise = context.promise();
     try {
       if (mailResult.getRecipients().size() > 0) {
-        connection.write("DATA").onComplete(ar -> {
+        connection.write(SMTPConnection.DATA, "DATA", SMTPPhase.ENVELOPE).onComplete(ar -> {
           if (log.isDebugEnabled()) {
             written.getAndAdd(4);
           }
@@ -277,125 +441,140 @@ public class SMTPSendMail {
   }
 
   private Future<MailResult> sendMailData(boolean includeData) {
+    envelopeEnd = System.nanoTime();
+    final SMTPDataWriter writer = new SMTPDataWriter(context, connection);
     if (!includeData) {
-      return sendEndDot();
+      return sendEndDot(writer);
     }
-    return sendMailHeaders(this.encodedPart.headers())
-      .flatMap(v -> sendMailBody())
-      .flatMap(v -> sendEndDot());
+    if (encodedPart instanceof RawPart) {
+      return sendRawPart(writer, (RawPart) encodedPart)
+        .flatMap(v -> sendEndDot(writer));
+    }
+    return sendPart(writer.headers(encodedPart.headers()), encodedPart)
+      .flatMap(v -> sendEndDot(writer));
   }
 
-  private Future<Void> sendMailHeaders(MultiMap headers) {
-    StringBuilder sb = new StringBuilder();
-    headers.forEach(header -> sb.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n"));
-    final String headerLines = sb.toString();
-    return connection.writeLineWithDrain(headerLines, written.getAndAdd(headerLines.length()) < 1000);
+  private Future<Void> sendRawPart(SMTPDataWriter writer, RawPart rawPart) {
+    writer.fields(rawPart.prependedHeaders());
+    final Future<Void> content = rawPart.message() != null ? writer.raw(rawPart.message()) : writer.rawStream(rawPart.stream());
+    return content.map(v -> {
+      writer.endRaw();
+      return null;
+    });
   }
 
-  private Future<MailResult> sendEndDot() {
+  private Future<MailResult> sendEndDot(SMTPDataWriter writer) {
     Promise<MailResult> promise = context.promise();
     try {
-      connection.getContext().runOnContext(v -> connection.write(".").onComplete(ar -> {
-        if (ar.failed()) {
-          promise.fail(ar.cause());
-        }
-        SMTPResponse response = ar.result();
-        if (response.isStatusOk()) {
-          promise.complete(mailResult);
-        } else {
-          promise.fail(response.toException("sending data failed", connection.getCapa().isCapaEnhancedStatusCodes()));
-        }
-      }));
+      connection.getContext().runOnContext(v -> {
+        dataEnd = System.nanoTime();
+        // with LMTP, the server replies once per accepted recipient, in the order of the RCPT commands
+        final List<String> accepted = config.isLmtp() ? new ArrayList<>(mailResult.getRecipients()) : null;
+        endOfDataSent = true;
+        writer.end(accepted != null && !accepted.isEmpty() ? accepted.size() : 1).onComplete(ar -> {
+          if (log.isDebugEnabled()) {
+            written.getAndAdd(writer.bytesWritten());
+          }
+          if (ar.failed()) {
+            promise.fail(ar.cause());
+            return;
+          }
+          SMTPResponse response = accepted != null && !accepted.isEmpty() ? deliveries(accepted, ar.result()) : ar.result()[0];
+          if (response.isStatusOk()) {
+            endOfDataReplyCode = response.getReplyCode();
+            mailResult.setStatistics(connection.statistics()
+              .setEnvelopeTime(envelopeEnd - transactionStart)
+              .setDataTime(dataEnd - envelopeEnd)
+              .setEndOfDataTime(System.nanoTime() - dataEnd)
+              .setDataWrites(writer.writes())
+              .setQueueId(queueId(response)));
+            promise.complete(mailResult);
+          } else {
+            promise.fail(response.toException("sending data failed", connection.getCapa().isCapaEnhancedStatusCodes()));
+          }
+        });
+      });
     } catch (Exception e) {
       promise.fail(e);
     }
     return promise.future();
   }
 
-  private Future<Void> sendMailBody() {
-    Promise<Void> promise = context.promise();
-    final EncodedPart part = this.encodedPart;
+  /**
+   * Records the delivery status of each recipient of a LMTP transaction, the recipients the mail was not delivered
+   * to are removed from the result.
+   *
+   * @return the first successful reply, or the first reply when the mail was not delivered to any recipient
+   */
+  private SMTPResponse deliveries(List<String> accepted, SMTPResponse[] replies) {
+    SMTPResponse delivered = null;
+    for (int i = 0; i < accepted.size(); i++) {
+      final String recipient = accepted.get(i);
+      final SMTPResponse reply = replies[i];
+      if (reply.isStatusOk()) {
+        if (delivered == null) {
+          delivered = reply;
+        }
+      } else {
+        mailResult.getRecipients().remove(recipient);
+        mailResult.getRecipientFailures().put(recipient, reply.getValue());
+        recipientFailed(recipient, reply);
+      }
+    }
+    return delivered != null ? delivered : replies[0];
+  }
+
+  /**
+   * @return the queue id of the mail in the reply to the end of data line, or {@code null} if it is not found
+   */
+  static String queueId(SMTPResponse response) {
+    final Matcher matcher = QUEUE_ID.matcher(response.getValue());
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  /**
+   * Sends the body of a part, its headers have been written already.
+   */
+  private Future<Void> sendPart(SMTPDataWriter writer, EncodedPart part) {
     try {
       if (isMultiPart(part)) {
-        sendMultiPart(part, 0, promise);
+        return sendMultiPart(writer, part, 0);
       } else {
-        sendRegularPartBody(part, promise);
+        return sendRegularPartBody(writer, part);
       }
     } catch (Exception e) {
-      promise.fail(e);
+      return context.failedFuture(e);
     }
-    return promise.future();
   }
 
-  private void sendMultiPart(EncodedPart multiPart, final int i, Promise<Void> promise) {
-    try {
-      final String boundaryStart = "--" + multiPart.boundary();
-      final EncodedPart thePart = multiPart.parts().get(i);
-
-      Promise<Void> boundaryStartPromise = context.promise();
-      boundaryStartPromise.future()
-        .compose(v -> sendMailHeaders(thePart.headers())).onComplete(v -> {
-        if (v.succeeded()) {
-          Promise<Void> nextPromise = context.promise();
-          nextPromise.future().onComplete(vv -> {
-            if (vv.succeeded()) {
-              if (i == multiPart.parts().size() - 1) {
-                String boundaryEnd = boundaryStart + "--";
-                connection.writeLineWithDrain(boundaryEnd, written.getAndAdd(boundaryEnd.length()) < 1000).onComplete(promise);
-              } else {
-                sendMultiPart(multiPart, i + 1, promise);
-              }
-            } else {
-              promise.fail(vv.cause());
-            }
-          });
-          if (isMultiPart(thePart)) {
-            sendMultiPart(thePart, 0, nextPromise);
-          } else {
-            sendRegularPartBody(thePart, nextPromise);
-          }
+  private Future<Void> sendMultiPart(SMTPDataWriter writer, EncodedPart multiPart, final int i) {
+    final String boundaryStart = "--" + multiPart.boundary();
+    final EncodedPart thePart = multiPart.parts().get(i);
+    return sendPart(writer.line(boundaryStart).headers(thePart.headers()), thePart)
+      .flatMap(v -> {
+        if (i == multiPart.parts().size() - 1) {
+          writer.line(boundaryStart + "--");
+          return context.succeededFuture();
         } else {
-          promise.fail(v.cause());
+          return sendMultiPart(writer, multiPart, i + 1);
         }
       });
-      connection.writeLineWithDrain(boundaryStart, written.getAndAdd(boundaryStart.length()) < 1000).onComplete(boundaryStartPromise);
-    } catch (Exception e) {
-      promise.fail(e);
-    }
   }
 
   private boolean isMultiPart(EncodedPart part) {
     return part.parts() != null && part.parts().size() > 0;
   }
 
-  private void sendBodyLineByLine(String[] lines, int i, Promise<Void> promise) {
-    if (i < lines.length) {
-      String line = lines[i];
-      if (line.startsWith(".")) {
-        line = "." + line;
-      }
-      connection.writeLineWithDrain(line, written.getAndAdd(line.length()) < 1000).onComplete(v -> {
-        if (v.succeeded()) {
-          sendBodyLineByLine(lines, i + 1, promise);
-        } else {
-          promise.fail(v.cause());
-        }
-      });
-    } else {
-      promise.complete();
-    }
-  }
-
-  private void sendRegularPartBody(EncodedPart part, Promise<Void> promise) {
+  private Future<Void> sendRegularPartBody(SMTPDataWriter writer, EncodedPart part) {
     if (part.body() != null) {
       // send body string line by line
-      sendBodyLineByLine(part.body().split("\n"), 0, promise);
+      return writer.body(part.body());
     } else {
       ReadStream<Buffer> attachBodyStream = part.bodyStream(connection.getContext());
       if (attachBodyStream != null) {
-        attachBodyStream.pipe().endOnComplete(false).to(connection.getSocket()).onComplete(promise);
+        return writer.stream(attachBodyStream);
       } else {
-        promise.fail(new IllegalStateException("No mail body and stream found"));
+        return context.failedFuture(new IllegalStateException("No mail body and stream found"));
       }
     }
   }
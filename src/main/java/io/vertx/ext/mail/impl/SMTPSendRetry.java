@@ -0,0 +1,303 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailStatistics;
+import io.vertx.ext.mail.SMTPException;
+import io.vertx.ext.mail.SMTPTimeoutException;
+import io.vertx.ext.mail.mailencoder.EncodedPart;
+import io.vertx.ext.mail.mailencoder.RawPart;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an encoded mail, and sends it again after a delay when it fails with a transient error.
+ * <p>
+ * The recipients over the max recipients of a transaction, or refused by the server because there are too many, are
+ * sent the mail in the next transactions, on the same or another pooled connection, and the recipients of all the
+ * transactions are aggregated in the result.
+ * <p>
+ * The transient errors are the transient replies (4xx) of the SMTP server, the reply timeouts and the I/O errors.
+ * A reply timeout or an I/O error after the end of data line has been written is not retried: the server may have
+ * accepted the mail without the reply reaching the client, and the mail would be delivered twice (RFC 1047).
+ * The recipients refused with a permanent reply are removed from the next attempts, and when the mail has been sent
+ * to part of its recipients, which happens when {@link MailConfig#isAllowRcptErrors()} is set, it is sent again to
+ * the recipients refused with a transient reply only.
+ * <p>
+ * A raw message read from a stream can be sent only once, it is neither retried nor sent in a next batch.
+ */
+class SMTPSendRetry {
+
+  private static final Logger log = LoggerFactory.getLogger(SMTPSendRetry.class);
+
+  private final ContextInternal context;
+  private final MailConfig config;
+  private final MailMessage email;
+  private final EncodedPart encodedPart;
+  private final String messageId;
+  // a streamed raw message can only be read once
+  private final boolean replayable;
+  private final ConcurrencyLimiter concurrencyLimiter;
+  private final ConnectionFactory connectionFactory;
+  private final long deadline;
+  private final MailResult mailResult = new MailResult();
+  private final Promise<MailResult> promise;
+  // null for all the recipients of the mail
+  private List<String> recipients;
+  // the recipients refused with a transient reply, retried once all the batches of recipients are sent
+  private final List<String> retryLater = new ArrayList<>();
+  // the failure of a batch of recipients, reported in the recipient failures when the mail is sent to other batches
+  private Throwable batchFailure;
+  private int attempts;
+  private boolean nextBatch;
+  private volatile SMTPSendMail current;
+
+  /**
+   * Gets a pooled connection for an attempt.
+   */
+  interface ConnectionFactory {
+    /**
+     * @param recipients the count of recipients of the attempt
+     * @param errorHandler the handler of the connection errors happening outside a command
+     */
+    Future<SMTPConnection> connect(int recipients, Handler<Throwable> errorHandler);
+  }
+
+  SMTPSendRetry(ContextInternal context, MailConfig config, MailMessage email, EncodedPart encodedPart, String messageId,
+                ConcurrencyLimiter concurrencyLimiter, ConnectionFactory connectionFactory) {
+    this.context = context;
+    this.config = config;
+    this.email = email;
+    this.encodedPart = encodedPart;
+    this.messageId = messageId;
+    this.replayable = !(encodedPart instanceof RawPart) || ((RawPart) encodedPart).stream() == null;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.connectionFactory = connectionFactory;
+    this.deadline = config.getRetryDeadline() > 0
+      ? System.nanoTime() + config.getRetryDelayUnit().toNanos(config.getRetryDeadline()) : 0;
+    this.promise = context.promise();
+    this.mailResult.setMessageID(messageId);
+  }
+
+  Future<MailResult> send() {
+    attempt().onComplete(this::handleAttempt);
+    return promise.future();
+  }
+
+  private Future<MailResult> attempt() {
+    if (!nextBatch) {
+      attempts++;
+    }
+    nextBatch = false;
+    current = null;
+    final int recipientCount;
+    try {
+      final int count = recipients != null ? recipients.size() : SMTPSendMail.allRecipients(email).size();
+      // the RCPTMAX limit of the server is only known once connected
+      recipientCount = config.getMaxRecipientsPerTransaction() > 0 ? Math.min(count, config.getMaxRecipientsPerTransaction()) : count;
+    } catch (Exception e) {
+      return context.failedFuture(e);
+    }
+    return concurrencyLimiter.acquire(context).flatMap(permit -> {
+      final Promise<MailResult> attempt = context.promise();
+      connectionFactory.connect(recipientCount, attempt::tryFail)
+        .flatMap(conn -> {
+          final SMTPSendMail sendMail = new SMTPSendMail(context, conn, email, config, encodedPart, messageId, recipients);
+          current = sendMail;
+          return sendMail.startMailTransaction().compose(
+            result -> conn.returnToPool().transform(v -> context.succeededFuture(result)),
+            failure -> conn.quitCloseConnection().transform(v -> context.failedFuture(failure)));
+        })
+        .onComplete(ar -> {
+          if (ar.succeeded()) {
+            attempt.tryComplete(ar.result());
+          } else {
+            attempt.tryFail(ar.cause());
+          }
+        });
+      return attempt.future()
+        .andThen(ar -> {
+          // only the latency of the server replies is measured, not the waits of the client nor the data transfer
+          final SMTPSendMail sendMail = current;
+          concurrencyLimiter.release(sendMail != null ? sendMail.replyLatency() : 0, isCongested(ar));
+        });
+    });
+  }
+
+  /**
+   * @return if the SMTP server signaled it is congested: a reply timeout, a 421 or 452 reply, or recipients refused
+   * with a transient reply
+   */
+  private boolean isCongested(AsyncResult<MailResult> ar) {
+    if (ar.succeeded()) {
+      final SMTPSendMail sendMail = current;
+      return sendMail != null && !sendMail.transientRecipientFailures().isEmpty();
+    }
+    final Throwable t = ar.cause();
+    if (t instanceof SMTPException) {
+      final int replyCode = ((SMTPException) t).getReplyCode();
+      return replyCode == 421 || replyCode == 452;
+    }
+    return t instanceof SMTPTimeoutException;
+  }
+
+  private void handleAttempt(AsyncResult<MailResult> ar) {
+    final SMTPSendMail sendMail = current;
+    if (ar.succeeded()) {
+      mailResult.getRecipients().addAll(ar.result().getRecipients());
+      // a recipient failing with LMTP may be delivered by a later attempt
+      mailResult.getRecipientFailures().keySet().removeAll(ar.result().getRecipients());
+      mailResult.getRecipientFailures().putAll(ar.result().getRecipientFailures());
+      final MailStatistics statistics = ar.result().getStatistics();
+      if (statistics != null) {
+        if (mailResult.getStatistics() == null) {
+          mailResult.setStatistics(new MailStatistics(statistics));
+        } else {
+          mailResult.getStatistics().add(statistics);
+        }
+      }
+      if (sendMail != null) {
+        retryLater.addAll(sendMail.transientRecipientFailures());
+        if (!sendMail.deferredRecipients().isEmpty() && !replayable) {
+          log.warn("the streamed mail " + messageId + " cannot be sent again to the recipients over the limit of a transaction: "
+            + sendMail.deferredRecipients());
+        } else if (!sendMail.deferredRecipients().isEmpty()) {
+          // the next batch of recipients is sent right away, it is not a new attempt
+          recipients = new ArrayList<>(sendMail.deferredRecipients());
+          nextBatch = true;
+          attempt().onComplete(this::handleAttempt);
+          return;
+        }
+      }
+      complete();
+      return;
+    }
+    final Throwable cause = ar.cause();
+    if (isTransient(cause) && !maybeAccepted(sendMail, cause)) {
+      List<String> next = recipients;
+      if (sendMail != null && !sendMail.permanentRecipientFailures().isEmpty()) {
+        next = new ArrayList<>(next != null ? next : SMTPSendMail.allRecipients(email));
+        next.removeAll(sendMail.permanentRecipientFailures());
+      }
+      if ((next == null || !next.isEmpty()) && retry(next)) {
+        return;
+      }
+    }
+    if (!config.isAllowRcptErrors()) {
+      // the recipients of this batch and of the next ones are not sent the mail, even when a previous batch was
+      promise.fail(cause);
+      return;
+    }
+    // the recipients of the batch are reported as failed, the next batches are still sent
+    final List<String> deferred = sendMail != null && replayable ? sendMail.deferredRecipients() : Collections.emptyList();
+    final List<String> failed = new ArrayList<>(recipients != null ? recipients : SMTPSendMail.allRecipients(email));
+    failed.removeAll(deferred);
+    for (String recipient : failed) {
+      mailResult.getRecipientFailures().putIfAbsent(recipient, cause.getMessage());
+    }
+    batchFailure = cause;
+    if (!deferred.isEmpty()) {
+      recipients = new ArrayList<>(deferred);
+      nextBatch = true;
+      attempt().onComplete(this::handleAttempt);
+      return;
+    }
+    complete();
+  }
+
+  /**
+   * Completes the send once all the batches of recipients are sent, after the recipients refused with a transient
+   * reply are sent again, the send fails when no recipient was sent the mail and a batch failed.
+   */
+  private void complete() {
+    if (!retryLater.isEmpty() && retry(new ArrayList<>(retryLater))) {
+      retryLater.clear();
+      return;
+    }
+    if (batchFailure != null && mailResult.getRecipients().isEmpty()) {
+      promise.fail(batchFailure);
+    } else {
+      promise.complete(mailResult);
+    }
+  }
+
+  private boolean retry(List<String> next) {
+    if (!replayable || attempts >= config.getMaxSendAttempts()) {
+      return false;
+    }
+    final long delay = delay();
+    if (deadline != 0 && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) > deadline) {
+      return false;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("sending mail " + messageId + " again in " + delay + " ms, attempt " + (attempts + 1));
+    }
+    recipients = next;
+    context.setTimer(delay, id -> attempt().onComplete(this::handleAttempt));
+    return true;
+  }
+
+  /**
+   * @return the exponential delay before the next attempt, minus a random jitter of up to half of it, in millis
+   */
+  private long delay() {
+    final long initial = config.getRetryDelayUnit().toMillis(config.getRetryInitialDelay());
+    final long max = config.getRetryDelayUnit().toMillis(config.getRetryMaxDelay());
+    long delay = initial;
+    for (int i = 1; i < attempts && delay < max; i++) {
+      delay *= 2;
+    }
+    delay = Math.min(delay, max);
+    delay -= ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    return Math.max(delay, 1);
+  }
+
+  /**
+   * @return if the server may have accepted the mail of a failed attempt, the end of data line has been written and
+   * no reply was received
+   */
+  private boolean maybeAccepted(SMTPSendMail sendMail, Throwable cause) {
+    if (sendMail == null || !sendMail.endOfDataSent() || cause instanceof SMTPException) {
+      return false;
+    }
+    log.warn("no reply to the end of data of mail " + messageId + ", it is not sent again since the server may have accepted it");
+    return true;
+  }
+
+  static boolean isTransient(Throwable t) {
+    if (t instanceof SMTPException) {
+      return ((SMTPException) t).isTransient();
+    }
+    return t instanceof SMTPTimeoutException || t instanceof IOException;
+  }
+
+}
@@ -64,7 +64,7 @@ class SMTPStarter {
     this.credentialsSupplier = credentialsSupplier;
   }
 
-  Future<Void> serverGreeting(String message) {
+  Future<Void> serverGreeting(SMTPResponse greeting) {
     Future<UsernamePasswordCredentials> creds;
     if (credentialsSupplier != null) {
       creds = credentialsSupplier.get().expecting(CREDENTIALS_EXPECTATION);
@@ -72,7 +72,7 @@ class SMTPStarter {
       creds = Future.succeededFuture();
     }
     return creds.compose(credentials -> {
-      return new SMTPInitialDialogue(context, connection, config, hostname).start(message)
+      return new SMTPInitialDialogue(context, connection, config, hostname).start(greeting)
         .flatMap(ignored -> new SMTPAuthentication(context, connection, config, authOperationFactory, credentials).start());
     });
   }
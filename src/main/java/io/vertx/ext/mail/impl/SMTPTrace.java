@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.spi.tracing.SpanKind;
+import io.vertx.core.spi.tracing.TagExtractor;
+import io.vertx.core.spi.tracing.VertxTracer;
+import io.vertx.core.tracing.TracingPolicy;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailStatistics;
+import io.vertx.ext.mail.SMTPException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The client span of a sendMail operation, reported to the {@link VertxTracer} of Vert.x.
+ * <p>
+ * The span is tagged with the SMTP server, the count of recipients and the estimated size of the mail when it starts,
+ * and with the reply code of a failure, the encoding and DKIM signature times, and the {@link MailStatistics} of the
+ * result when it ends.
+ */
+final class SMTPTrace {
+
+  private static final String OPERATION = "send";
+
+  private static final TagExtractor<SMTPTrace> REQUEST_TAGS = new TagExtractor<SMTPTrace>() {
+    @Override
+    public int len(SMTPTrace trace) {
+      return 4;
+    }
+
+    @Override
+    public String name(SMTPTrace trace, int index) {
+      switch (index) {
+        case 0:
+          return "server.address";
+        case 1:
+          return "server.port";
+        case 2:
+          return "smtp.recipient_count";
+        case 3:
+          return "smtp.message_size";
+        default:
+          throw new IndexOutOfBoundsException("Invalid tag index " + index);
+      }
+    }
+
+    @Override
+    public String value(SMTPTrace trace, int index) {
+      switch (index) {
+        case 0:
+          return trace.host;
+        case 1:
+          return String.valueOf(trace.port);
+        case 2:
+          return String.valueOf(trace.recipients);
+        case 3:
+          return String.valueOf(trace.size);
+        default:
+          throw new IndexOutOfBoundsException("Invalid tag index " + index);
+      }
+    }
+  };
+
+  // the response tags are collected as name, value pairs
+  private static final TagExtractor<List<String>> RESPONSE_TAGS = new TagExtractor<List<String>>() {
+    @Override
+    public int len(List<String> tags) {
+      return tags.size() / 2;
+    }
+
+    @Override
+    public String name(List<String> tags, int index) {
+      return tags.get(index * 2);
+    }
+
+    @Override
+    public String value(List<String> tags, int index) {
+      return tags.get(index * 2 + 1);
+    }
+  };
+
+  private final VertxTracer tracer;
+  private final String host;
+  private final int port;
+  private final int recipients;
+  private final long size;
+  private Object payload;
+  private long encodeTime = -1;
+  private long signTime = -1;
+
+  private SMTPTrace(VertxTracer tracer, MailConfig config, MailMessage email, long size) {
+    this.tracer = tracer;
+    this.host = config.getDomainSocketPath() != null ? config.getDomainSocketPath() : config.getHostname();
+    this.port = config.getPort();
+    this.recipients = count(email.getTo()) + count(email.getCc()) + count(email.getBcc());
+    this.size = size;
+  }
+
+  private static int count(List<String> addresses) {
+    return addresses == null ? 0 : addresses.size();
+  }
+
+  /**
+   * Starts the span of a sendMail operation.
+   *
+   * @param size the estimated size of the mail
+   * @return the trace, or {@code null} if Vert.x has no tracer or the tracing policy is {@link TracingPolicy#IGNORE}
+   */
+  @SuppressWarnings("unchecked")
+  static SMTPTrace start(ContextInternal context, MailConfig config, MailMessage email, long size) {
+    final VertxTracer tracer = context.tracer();
+    if (tracer == null || config.getTracingPolicy() == TracingPolicy.IGNORE) {
+      return null;
+    }
+    final SMTPTrace trace = new SMTPTrace(tracer, config, email, size);
+    trace.payload = tracer.sendRequest(context, SpanKind.RPC, config.getTracingPolicy(), trace, OPERATION,
+      (key, value) -> {}, REQUEST_TAGS);
+    return trace;
+  }
+
+  /**
+   * @param encodeTime the time encoding the mail, in nanos
+   */
+  void encoded(long encodeTime) {
+    this.encodeTime = encodeTime;
+  }
+
+  /**
+   * @param signTime the time of the DKIM signatures of the mail, in nanos
+   */
+  void signed(long signTime) {
+    this.signTime = signTime;
+  }
+
+  /**
+   * Ends the span with the outcome of the operation.
+   */
+  @SuppressWarnings("unchecked")
+  void end(ContextInternal context, AsyncResult<MailResult> ar) {
+    final List<String> tags = new ArrayList<>();
+    if (ar.failed() && ar.cause() instanceof SMTPException) {
+      tag(tags, "smtp.reply_code", ((SMTPException) ar.cause()).getReplyCode());
+    }
+    if (encodeTime >= 0) {
+      tag(tags, "smtp.encode_ns", encodeTime);
+    }
+    if (signTime >= 0) {
+      tag(tags, "smtp.dkim_sign_ns", signTime);
+    }
+    if (ar.succeeded()) {
+      final MailResult result = ar.result();
+      tag(tags, "smtp.recipients_accepted", result.getRecipients().size());
+      final MailStatistics statistics = result.getStatistics();
+      if (statistics != null) {
+        tag(tags, "smtp.pool_wait_ns", statistics.getPoolWaitTime());
+        tag(tags, "smtp.connect_ns", statistics.getConnectTime());
+        tag(tags, "smtp.handshake_ns", statistics.getHandshakeTime());
+        tag(tags, "smtp.reset_ns", statistics.getResetTime());
+        tag(tags, "smtp.envelope_ns", statistics.getEnvelopeTime());
+        tag(tags, "smtp.data_ns", statistics.getDataTime());
+        tag(tags, "smtp.end_of_data_ns", statistics.getEndOfDataTime());
+        tag(tags, "smtp.bytes_written", statistics.getBytesWritten());
+        tag(tags, "smtp.data_writes", statistics.getDataWrites());
+        tag(tags, "smtp.round_trips", statistics.getRoundTrips());
+        tag(tags, "smtp.connection_reused", statistics.isConnectionReused());
+        if (statistics.getQueueId() != null) {
+          tag(tags, "smtp.queue_id", statistics.getQueueId());
+        }
+      }
+    }
+    tracer.receiveResponse(context, tags, payload, ar.cause(), RESPONSE_TAGS);
+  }
+
+  private static void tag(List<String> tags, String name, Object value) {
+    tags.add(name);
+    tags.add(String.valueOf(value));
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.internal.logging.Logger;
+import io.vertx.core.internal.logging.LoggerFactory;
+import io.vertx.core.net.NetSocket;
+
+import javax.net.ssl.SSLSession;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the TLS handshakes of the connections to a SMTP server and how many of them resumed a session.
+ * <p>
+ * The sessions are cached by the SSL context of the {@link io.vertx.core.net.NetClient} of the pool, keyed by the
+ * host and port of the server, so the connections of one pool resume the sessions of each other, for implicit SSL
+ * as well as for STARTTLS.
+ * <p>
+ * A handshake is counted as resumed when the id of the negotiated session is the id of a session negotiated by a
+ * previous handshake of the pool, the ids of the last {@link #MAX_SESSIONS} sessions are kept.
+ * <p>
+ * The count of resumed handshakes is only accurate for TLSv1.2 and below. A TLSv1.3 session resumed with a pre-shared
+ * key does not reliably keep the id of the original session, depending on the SSL engine, so the resumed TLSv1.3
+ * handshakes may be counted as new ones.
+ */
+class TLSSessionStats {
+
+  private static final Logger log = LoggerFactory.getLogger(TLSSessionStats.class);
+
+  static final int MAX_SESSIONS = 1024;
+
+  private final AtomicLong handshakes = new AtomicLong();
+  private final AtomicLong resumed = new AtomicLong();
+  // the ids of the sessions negotiated so far, the eldest are dropped, guarded by itself
+  private final Map<ByteBuffer, Boolean> sessions = new LinkedHashMap<ByteBuffer, Boolean>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+      return size() > MAX_SESSIONS;
+    }
+  };
+
+  /**
+   * Records the handshake of a connection.
+   *
+   * @param ns the socket the handshake has been done on
+   */
+  void record(NetSocket ns) {
+    final SSLSession session = ns.sslSession();
+    if (session == null) {
+      return;
+    }
+    final long total = handshakes.incrementAndGet();
+    final byte[] id = session.getId();
+    final boolean reused;
+    if (id == null || id.length == 0) {
+      // a session without id can not be resumed
+      reused = false;
+    } else {
+      synchronized (sessions) {
+        reused = sessions.put(ByteBuffer.wrap(id), Boolean.TRUE) != null;
+      }
+    }
+    final long hits = reused ? resumed.incrementAndGet() : resumed.get();
+    if (log.isDebugEnabled()) {
+      log.debug((reused ? "resumed" : "new") + " TLS session " + session.getProtocol() + ", " + hits + " of " + total
+        + " handshakes resumed");
+    }
+  }
+
+  /**
+   * @return the count of TLS handshakes
+   */
+  long handshakes() {
+    return handshakes.get();
+  }
+
+  /**
+   * @return the count of TLS handshakes which resumed a cached session
+   */
+  long resumed() {
+    return resumed.get();
+  }
+
+}
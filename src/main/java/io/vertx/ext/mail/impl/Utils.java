@@ -19,6 +19,8 @@ package io.vertx.ext.mail.impl;
 import io.vertx.core.MultiMap;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailMessage;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -129,4 +131,36 @@ public final class Utils {
     return Collections.singletonList(element);
   }
 
+  /**
+   * estimate the encoded size of a mail before it is encoded, from the length of its text and html and the size of
+   * its attachments which are base64 encoded.
+   *
+   * @param email the mail
+   * @return the estimated size in bytes
+   */
+  static long estimateSize(MailMessage email) {
+    long size = 0;
+    if (email.getText() != null) {
+      size += email.getText().length();
+    }
+    if (email.getHtml() != null) {
+      size += email.getHtml().length();
+    }
+    size += estimateSize(email.getAttachment());
+    size += estimateSize(email.getInlineAttachment());
+    return size;
+  }
+
+  private static long estimateSize(List<MailAttachment> attachments) {
+    long size = 0;
+    if (attachments != null) {
+      for (MailAttachment attachment : attachments) {
+        final long length = attachment.getData() != null ? attachment.getData().length() : Math.max(attachment.getSize(), 0);
+        // base64 encoding
+        size += (length + 2) / 3 * 4;
+      }
+    }
+    return size;
+  }
+
 }
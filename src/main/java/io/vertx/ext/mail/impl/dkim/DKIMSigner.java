@@ -28,8 +28,10 @@ import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.mail.DKIMSignOptions;
 import io.vertx.ext.mail.CanonicalizationAlgorithm;
 import io.vertx.ext.mail.mailencoder.EncodedPart;
+import io.vertx.ext.mail.mailencoder.RawPart;
 import io.vertx.ext.mail.mailencoder.Utils;
 
+import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -56,6 +58,7 @@ public class DKIMSigner {
   private final String signatureTemplate;
   private final Signature signatureService;
   private static final Pattern DELIMITER = Pattern.compile("\n");
+  private static final byte[] CRLF = {'\r', '\n'};
 
   /**
    * The Constuctor of DKIMSigner.
@@ -345,7 +348,15 @@ public class DKIMSigner {
     Promise<String> bodyHashPromise = context.promise();
     try {
       final MessageDigest md = MessageDigest.getInstance(dkimSignOptions.getSignAlgo().hashAlgorithm());
-      if (encodedMessage.parts() != null && encodedMessage.parts().size() > 0) {
+      if (encodedMessage instanceof RawPart) {
+        final RawPart rawPart = (RawPart) encodedMessage;
+        if (rawPart.message() == null) {
+          throw new IllegalStateException("A streamed raw message cannot be signed");
+        }
+        walkThroughRawBody(md, rawPart.message(), rawPart.bodyOffset());
+        String bh = Base64.getEncoder().encodeToString(md.digest());
+        bodyHashPromise.complete(bh);
+      } else if (encodedMessage.parts() != null && encodedMessage.parts().size() > 0) {
         Promise<Void> multiPartWalkThrough = context.promise();
         multiPartWalkThrough.future().onComplete(r -> {
           if (r.succeeded()) {
@@ -373,6 +384,41 @@ public class DKIMSigner {
     return bodyHashPromise.future();
   }
 
+  // canonicalizes the body of a raw message line by line, like dkimMailBody does for an encoded body
+  private void walkThroughRawBody(MessageDigest md, Buffer message, int bodyOffset) {
+    final AtomicInteger written = new AtomicInteger();
+    final int length = message.length();
+    int emptyLines = 0;
+    boolean empty = true;
+    int start = bodyOffset;
+    while (start < length) {
+      int end = start;
+      while (end < length && message.getByte(end) != '\n') {
+        end++;
+      }
+      final int next = end + 1;
+      if (end > start && message.getByte(end - 1) == '\r') {
+        end--;
+      }
+      final String line = canonicBodyLine(message.getString(start, end, StandardCharsets.ISO_8859_1.name()));
+      if (line.isEmpty()) {
+        // the trailing empty lines are ignored
+        emptyLines++;
+      } else {
+        for (; emptyLines > 0; emptyLines--) {
+          digest(md, CRLF, written);
+        }
+        digest(md, line.getBytes(StandardCharsets.ISO_8859_1), written);
+        digest(md, CRLF, written);
+        empty = false;
+      }
+      start = next;
+    }
+    if (empty) {
+      digest(md, CRLF, written);
+    }
+  }
+
   private StringBuilder headersToSign(EncodedPart encodedMessage) {
     final StringBuilder signHeaders = new StringBuilder();
     // keep the order in the list, see: https://tools.ietf.org/html/rfc6376#section-3.7
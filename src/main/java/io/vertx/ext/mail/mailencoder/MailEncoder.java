@@ -217,4 +217,13 @@ public class MailEncoder {
   public String getMessageID() {
     return messageID;
   }
+
+  /**
+   * @param hostname the hostname to be used in the message-id
+   * @param mailConfig the config of the mail client, giving the user agent
+   * @return a new message-id, as generated when a message without one is encoded
+   */
+  public static String generateMessageID(String hostname, MailConfig mailConfig) {
+    return Utils.generateMessageID(hostname, mailConfig.getUserAgent());
+  }
 }
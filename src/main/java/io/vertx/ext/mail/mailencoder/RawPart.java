@@ -0,0 +1,153 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message already formatted by the caller, sent as is after the DATA command.
+ * <p>
+ * The {@link #headers()} are parsed from the header block of a buffered message, they are only read to sign the
+ * message, while the headers added to the message, e.g. the DKIM signatures, are kept apart in {@link #prependedHeaders()}
+ * and written before the raw content.
+ * <p>
+ * This is implementation detail class. It is not intended to be used outside of this mail client.
+ */
+public class RawPart extends EncodedPart {
+
+  private final Buffer message;
+  private final ReadStream<Buffer> stream;
+  private final MultiMap prependedHeaders = MultiMap.caseInsensitiveMultiMap();
+  private int bodyOffset;
+
+  public RawPart(Buffer message) {
+    this.message = message;
+    this.stream = null;
+  }
+
+  public RawPart(ReadStream<Buffer> stream) {
+    this.message = null;
+    this.stream = stream;
+    this.headers = MultiMap.caseInsensitiveMultiMap();
+  }
+
+  /**
+   * @return the buffered message, or {@code null} for a streamed message
+   */
+  public Buffer message() {
+    return message;
+  }
+
+  /**
+   * @return the streamed message, or {@code null} for a buffered message
+   */
+  public ReadStream<Buffer> stream() {
+    return stream;
+  }
+
+  /**
+   * @return the headers written before the raw content
+   */
+  public MultiMap prependedHeaders() {
+    return prependedHeaders;
+  }
+
+  /**
+   * @return the headers of a buffered message, folded lines are kept in the values, a streamed message has none
+   */
+  @Override
+  public MultiMap headers() {
+    if (headers == null) {
+      parseHeaders();
+    }
+    return headers;
+  }
+
+  /**
+   * @return the offset of the body of a buffered message, after the empty line ending the headers
+   */
+  public int bodyOffset() {
+    headers();
+    return bodyOffset;
+  }
+
+  /**
+   * @return the size of a buffered message, the size of a streamed message is unknown and is {@code 0}
+   */
+  @Override
+  public int size() {
+    return message != null ? message.length() : 0;
+  }
+
+  @Override
+  public String body() {
+    return null;
+  }
+
+  private void parseHeaders() {
+    headers = MultiMap.caseInsensitiveMultiMap();
+    final int length = message.length();
+    String name = null;
+    StringBuilder value = null;
+    int start = 0;
+    while (start < length) {
+      int end = start;
+      while (end < length && message.getByte(end) != '\n') {
+        end++;
+      }
+      final int next = Math.min(end + 1, length);
+      if (end > start && message.getByte(end - 1) == '\r') {
+        end--;
+      }
+      if (end == start) {
+        // the empty line ending the headers
+        start = next;
+        break;
+      }
+      final String line = message.getString(start, end, StandardCharsets.ISO_8859_1.name());
+      final char first = line.charAt(0);
+      if ((first == ' ' || first == '\t') && value != null) {
+        value.append("\r\n").append(line);
+      } else {
+        final int colon = line.indexOf(':');
+        if (colon <= 0) {
+          // not a header, the message has no header block
+          headers.clear();
+          name = null;
+          start = 0;
+          break;
+        }
+        if (name != null) {
+          headers.add(name, value.toString());
+        }
+        name = line.substring(0, colon).trim();
+        final int valueStart = colon + 1 < line.length() && line.charAt(colon + 1) == ' ' ? colon + 2 : colon + 1;
+        value = new StringBuilder(line.substring(valueStart));
+      }
+      start = next;
+    }
+    if (name != null) {
+      headers.add(name, value.toString());
+    }
+    bodyOffset = start;
+  }
+
+}
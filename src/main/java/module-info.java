@@ -5,5 +5,6 @@ module io.vertx.mail.client {
   requires io.vertx.auth.common;
   requires io.vertx.core;
   requires io.vertx.core.logging;
+  requires static jdk.jfr;
   exports io.vertx.ext.mail;
 }
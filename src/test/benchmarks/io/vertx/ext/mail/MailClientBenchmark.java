@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * end to end benchmark of the mail client sending to a {@link SmtpSink}, the throughput mode reports the messages per
+ * ms, with the bytes per ms as the {@code bytes} counter, the sample time mode reports the latency percentiles.
+ * <p>
+ * The client runs on {@code eventLoops} event loops, the sink on its own Vert.x instance so that it is not the
+ * bottleneck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class MailClientBenchmark {
+
+  private static final int PORT = 2525;
+
+  @Param({"1", "8"})
+  public int poolSize;
+
+  @Param({"1024", "1048576"})
+  public int messageSize;
+
+  @Param({"1", "4"})
+  public int eventLoops;
+
+  @Param({"true", "false"})
+  public boolean pipelining;
+
+  @Param({"0"})
+  public long latency;
+
+  @Param({"0"})
+  public double failureRate;
+
+  private Vertx sinkVertx;
+  private Vertx vertx;
+  private MailClient mailClient;
+  private MailMessage message;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long bytes;
+    public long failures;
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    sinkVertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(4));
+    new SmtpSink(sinkVertx)
+      .setPipelining(pipelining)
+      .setMaxSize(100 * 1024 * 1024)
+      .setLatency(latency)
+      .setFailureRate(failureRate)
+      .start(PORT, 4)
+      .toCompletionStage().toCompletableFuture().get();
+    vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(eventLoops));
+    mailClient = MailClient.create(vertx, new MailConfig()
+      .setHostname("localhost")
+      .setPort(PORT)
+      .setStarttls(StartTLSOptions.DISABLED)
+      .setPipelining(pipelining)
+      .setMaxPoolSize(poolSize));
+    StringBuilder text = new StringBuilder(messageSize);
+    while (text.length() < messageSize) {
+      text.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.\n");
+    }
+    text.setLength(messageSize);
+    message = new MailMessage()
+      .setFrom("sender@example.com")
+      .setTo("recipient@example.com")
+      .setSubject("benchmark")
+      .setText(text.toString());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    mailClient.close().toCompletionStage().toCompletableFuture().get();
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+    sinkVertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  public MailResult sendMail(Counters counters) throws InterruptedException {
+    try {
+      MailResult result = mailClient.sendMail(message).toCompletionStage().toCompletableFuture().get();
+      counters.bytes += messageSize;
+      return result;
+    } catch (ExecutionException e) {
+      // the injected failures
+      counters.failures++;
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VerticleBase;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SMTP server accepting and discarding every mail, as a load sink of the benchmarks.
+ * <p>
+ * Unlike the scripted test servers, it accepts any count of transactions per connection, in any order, and can
+ * advertise PIPELINING, SIZE and CHUNKING, delay each reply and fail a share of the transactions with a transient
+ * reply.
+ */
+class SmtpSink {
+
+  private final Vertx vertx;
+  private boolean pipelining = true;
+  private long maxSize;
+  private boolean chunking;
+  private long latency;
+  private double failureRate;
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  SmtpSink(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  SmtpSink setPipelining(boolean pipelining) {
+    this.pipelining = pipelining;
+    return this;
+  }
+
+  /**
+   * @param maxSize the size announced with SIZE, 0 to not announce it
+   */
+  SmtpSink setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  SmtpSink setChunking(boolean chunking) {
+    this.chunking = chunking;
+    return this;
+  }
+
+  /**
+   * @param latency the delay of each reply, in ms
+   */
+  SmtpSink setLatency(long latency) {
+    this.latency = latency;
+    return this;
+  }
+
+  /**
+   * @param failureRate the share of the transactions failed with a 451 reply, between 0 and 1
+   */
+  SmtpSink setFailureRate(double failureRate) {
+    this.failureRate = failureRate;
+    return this;
+  }
+
+  /**
+   * Starts a server per instance, sharing the port.
+   *
+   * @return the id of the deployment
+   */
+  Future<String> start(int port, int instances) {
+    return vertx.deployVerticle(() -> new VerticleBase() {
+      @Override
+      public Future<?> start() {
+        return vertx.createNetServer()
+          .connectHandler(Session::new)
+          .listen(port, "localhost");
+      }
+    }, new DeploymentOptions().setInstances(instances));
+  }
+
+  long messages() {
+    return messages.sum();
+  }
+
+  long bytes() {
+    return bytes.sum();
+  }
+
+  long failures() {
+    return failures.sum();
+  }
+
+  private String ehlo() {
+    StringBuilder sb = new StringBuilder("250-localhost");
+    if (pipelining) {
+      sb.append("\r\n250-PIPELINING");
+    }
+    if (maxSize > 0) {
+      sb.append("\r\n250-SIZE ").append(maxSize);
+    }
+    if (chunking) {
+      sb.append("\r\n250-CHUNKING");
+    }
+    return sb.append("\r\n250 8BITMIME").toString();
+  }
+
+  private class Session {
+
+    private final NetSocket socket;
+    private final RecordParser parser;
+    private boolean data;
+    private boolean chunk;
+    private boolean lastChunk;
+    private long size;
+
+    private Session(NetSocket socket) {
+      this.socket = socket;
+      this.parser = RecordParser.newDelimited("\r\n", this::handle);
+      socket.handler(parser);
+      reply("220 localhost ESMTP sink", false);
+    }
+
+    private void handle(Buffer buffer) {
+      if (chunk) {
+        chunk = false;
+        size += buffer.length();
+        parser.delimitedMode("\r\n");
+        endChunk();
+        return;
+      }
+      if (data) {
+        if (buffer.length() == 1 && buffer.getByte(0) == '.') {
+          data = false;
+          endMessage();
+        } else {
+          size += buffer.length() + 2;
+        }
+        return;
+      }
+      String line = buffer.toString(StandardCharsets.US_ASCII);
+      String verb = (line.length() > 4 ? line.substring(0, 4) : line).toUpperCase(Locale.ENGLISH);
+      switch (verb) {
+        case "EHLO":
+          reply(ehlo(), false);
+          break;
+        case "HELO":
+          reply("250 localhost", false);
+          break;
+        case "MAIL":
+          size = 0;
+          reply("250 2.1.0 Ok", false);
+          break;
+        case "RCPT":
+          reply("250 2.1.5 Ok", false);
+          break;
+        case "DATA":
+          data = true;
+          reply("354 End data with <CR><LF>.<CR><LF>", false);
+          break;
+        case "BDAT":
+          bdat(line);
+          break;
+        case "RSET":
+        case "NOOP":
+          reply("250 2.0.0 Ok", false);
+          break;
+        case "QUIT":
+          reply("221 2.0.0 Bye", true);
+          break;
+        default:
+          reply("502 5.5.2 command not recognized", false);
+      }
+    }
+
+    private void bdat(String line) {
+      String[] args = line.split(" ");
+      long chunkSize;
+      try {
+        chunkSize = Long.parseLong(args[1]);
+      } catch (RuntimeException e) {
+        reply("501 5.5.4 invalid chunk size", false);
+        return;
+      }
+      lastChunk = args.length > 2 && "LAST".equalsIgnoreCase(args[2]);
+      if (chunkSize == 0) {
+        endChunk();
+      } else {
+        chunk = true;
+        parser.fixedSizeMode((int) chunkSize);
+      }
+    }
+
+    private void endChunk() {
+      if (lastChunk) {
+        endMessage();
+      } else {
+        reply("250 2.0.0 chunk Ok", false);
+      }
+    }
+
+    private void endMessage() {
+      if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+        failures.increment();
+        reply("451 4.3.0 injected failure", false);
+      } else {
+        messages.increment();
+        bytes.add(size);
+        reply("250 2.0.0 Ok: queued", false);
+      }
+    }
+
+    private void reply(String reply, boolean close) {
+      if (latency > 0) {
+        vertx.setTimer(latency, id -> write(reply, close));
+      } else {
+        write(reply, close);
+      }
+    }
+
+    private void write(String reply, boolean close) {
+      Future<Void> written = socket.write(reply + "\r\n");
+      if (close) {
+        written.onComplete(ar -> socket.close());
+      }
+    }
+  }
+
+}
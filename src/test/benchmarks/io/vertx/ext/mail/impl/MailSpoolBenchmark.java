@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.internal.ContextInternal;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mail.MailConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * benchmark of the throughput of the spool, each operation appends a mail, waits until it is synced to the disk and
+ * acknowledges it, the throughput mode reports the mails per ms for each interval between the syncs.
+ * <p>
+ * The spool is written to a temporary directory, set {@code java.io.tmpdir} to measure another disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class MailSpoolBenchmark {
+
+  @Param({"0", "1", "10", "100"})
+  public int syncInterval;
+
+  @Param({"1024", "65536"})
+  public int messageSize;
+
+  private Vertx vertx;
+  private Path directory;
+  private MailSpool spool;
+  private ContextInternal context;
+  private JsonObject metadata;
+  private Buffer content;
+
+  @Setup
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    directory = Files.createTempDirectory("mail-spool-benchmark");
+    spool = new MailSpool(vertx, new MailConfig()
+      .setSpoolPath(directory.toString())
+      .setSpoolSyncInterval(syncInterval));
+    context = (ContextInternal) vertx.getOrCreateContext();
+    metadata = new JsonObject().put("from", "sender@example.com").put("recipients", "recipient@example.com");
+    content = Buffer.buffer(new byte[messageSize]);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    spool.close().toCompletionStage().toCompletableFuture().get();
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  @Benchmark
+  public long append() throws Exception {
+    long id = spool.append(context, metadata, content).toCompletionStage().toCompletableFuture().get();
+    spool.ack(id);
+    return id;
+  }
+
+}
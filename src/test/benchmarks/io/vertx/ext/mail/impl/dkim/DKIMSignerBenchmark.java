@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.impl.dkim;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.mail.CanonicalizationAlgorithm;
+import io.vertx.ext.mail.DKIMSignOptions;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.mailencoder.EncodedPart;
+import io.vertx.ext.mail.mailencoder.MailEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the DKIM signature of a mail, with the key generated at setup, the contended benchmark signs from 8
+ * threads with the same signer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DKIMSignerBenchmark {
+
+  @Param({"SIMPLE", "RELAXED"})
+  public CanonicalizationAlgorithm canonicalization;
+
+  @Param({"1024", "2048", "4096"})
+  public int keySize;
+
+  @Param({"1024", "65536", "1048576", "10485760"})
+  public int bodySize;
+
+  private Vertx vertx;
+  private Context context;
+  private DKIMSigner signer;
+  private EncodedPart encodedMessage;
+
+  @Setup
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(keySize);
+    String privateKey = Base64.getEncoder().encodeToString(generator.generateKeyPair().getPrivate().getEncoded());
+    signer = new DKIMSigner(new DKIMSignOptions()
+      .setPrivateKey(privateKey)
+      .setSelector("bench")
+      .setSdid("example.com")
+      .setHeaderCanonAlgo(canonicalization)
+      .setBodyCanonAlgo(canonicalization), vertx);
+    StringBuilder text = new StringBuilder(bodySize);
+    while (text.length() < bodySize) {
+      text.append("Lorem ipsum  dolor sit amet,\tconsectetur adipiscing elit, sed do eiusmod tempor incididunt.   \n");
+    }
+    text.setLength(bodySize);
+    encodedMessage = new MailEncoder(new MailMessage()
+      .setFrom("sender@example.com")
+      .setTo("recipient@example.com")
+      .setSubject("benchmark")
+      .setText(text.toString()), "localhost").encodeMail();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  public String signEmail() throws Exception {
+    return signer.signEmail(context, encodedMessage).toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String signEmailContended() throws Exception {
+    return signer.signEmail(context, encodedMessage).toCompletionStage().toCompletableFuture().get();
+  }
+
+}
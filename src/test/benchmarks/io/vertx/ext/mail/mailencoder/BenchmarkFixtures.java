@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * fixtures of the encoder benchmarks, generated with a fixed seed so that the runs are comparable
+ */
+final class BenchmarkFixtures {
+
+  static final String ASCII_TEXT;
+  static final String UTF8_HTML;
+  static final String UTF8_SUBJECT = "Gr\u00fc\u00dfe aus K\u00f6ln \u2013 Ihre Bestellung Nr. 4711 wurde versandt \u2713";
+  static final List<String> RECIPIENTS;
+
+  static {
+    StringBuilder text = new StringBuilder();
+    while (text.length() < 4096) {
+      text.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.\n");
+    }
+    ASCII_TEXT = text.toString();
+
+    StringBuilder html = new StringBuilder("<html><body>");
+    while (html.length() < 4096) {
+      html.append("<p>Sehr geehrte Kundin, Ihre Bestellung \u00fcber 12,50 \u20ac wurde heute versandt. Gr\u00fc\u00dfe, Ihr Team \u2709</p>\n");
+    }
+    html.append("</body></html>");
+    UTF8_HTML = html.toString();
+
+    List<String> recipients = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      recipients.add(i % 2 == 0 ? "user" + i + "@example.com (User " + i + ")" : "user" + i + "@example.com (J\u00fcrgen M\u00fcller " + i + ")");
+    }
+    RECIPIENTS = Collections.unmodifiableList(recipients);
+  }
+
+  private BenchmarkFixtures() {
+  }
+
+  static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * @param type one of {@code ascii}, {@code html}, {@code attachment-1mb} or {@code attachment-20mb}
+   */
+  static MailMessage message(String type) {
+    MailMessage message = new MailMessage()
+      .setFrom("sender@example.com (Sender)")
+      .setTo(RECIPIENTS.subList(0, 5))
+      .setSubject(UTF8_SUBJECT);
+    switch (type) {
+      case "ascii":
+        message.setText(ASCII_TEXT);
+        break;
+      case "html":
+        message.setText(ASCII_TEXT).setHtml(UTF8_HTML);
+        break;
+      case "attachment-1mb":
+        message.setText(ASCII_TEXT).setAttachment(attachment(1024 * 1024));
+        break;
+      case "attachment-20mb":
+        message.setText(ASCII_TEXT).setAttachment(attachment(20 * 1024 * 1024));
+        break;
+      default:
+        throw new IllegalArgumentException("unknown message type " + type);
+    }
+    return message;
+  }
+
+  private static MailAttachment attachment(int size) {
+    return MailAttachment.create()
+      .setName("report.pdf")
+      .setContentType("application/pdf")
+      .setData(Buffer.buffer(randomBytes(size)));
+  }
+
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import io.vertx.ext.mail.MailMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmark of the encoding of a whole mail
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailEncoderBenchmark {
+
+  @Param({"ascii", "html", "attachment-1mb", "attachment-20mb"})
+  public String type;
+
+  private MailMessage message;
+
+  @Setup
+  public void setup() {
+    message = BenchmarkFixtures.message(type);
+  }
+
+  @Benchmark
+  public EncodedPart encodeMail() {
+    return new MailEncoder(message, "localhost").encodeMail();
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mail.mailencoder;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the quoted-printable, header and base64 encodings
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+  /**
+   * the input of the base64 benchmark, its sizes do not multiply the runs of the other benchmarks
+   */
+  @State(Scope.Benchmark)
+  public static class Base64Input {
+
+    @Param({"1048576", "20971520"})
+    public int base64Size;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+      data = BenchmarkFixtures.randomBytes(base64Size);
+    }
+  }
+
+  @Benchmark
+  public String encodeQPAscii() {
+    return Utils.encodeQP(BenchmarkFixtures.ASCII_TEXT);
+  }
+
+  @Benchmark
+  public String encodeQPHtml() {
+    return Utils.encodeQP(BenchmarkFixtures.UTF8_HTML);
+  }
+
+  @Benchmark
+  public String encodeHeader() {
+    return Utils.encodeHeader(BenchmarkFixtures.UTF8_SUBJECT, 9);
+  }
+
+  @Benchmark
+  public String encodeEmailList() {
+    return Utils.encodeEmailList(BenchmarkFixtures.RECIPIENTS, 4);
+  }
+
+  @Benchmark
+  public String base64(Base64Input input) {
+    return Utils.base64(input.data);
+  }
+
+}
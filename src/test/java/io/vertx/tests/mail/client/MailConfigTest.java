@@ -17,6 +17,7 @@
 package io.vertx.tests.mail.client;
 
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.tracing.TracingPolicy;
 import io.vertx.ext.mail.LoginOption;
 import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.StartTLSOptions;
@@ -27,6 +28,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -251,6 +253,17 @@ public class MailConfigTest {
     assertTrue(mailConfig.isKeepAlive());
   }
 
+  @Test
+  public void testIdleNoopInterval() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(TimeUnit.SECONDS, mailConfig.getIdleNoopIntervalUnit());
+    mailConfig.setIdleNoopInterval(500).setIdleNoopIntervalUnit(TimeUnit.MILLISECONDS);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(500, config.getIdleNoopInterval());
+    assertEquals(TimeUnit.MILLISECONDS, config.getIdleNoopIntervalUnit());
+    assertEquals(mailConfig, config);
+  }
+
   @Test
   public void testAllowRcptErrors() {
     MailConfig mailConfig = new MailConfig();
@@ -319,4 +332,188 @@ public class MailConfigTest {
     assertFalse(mailConfig.isPipelining());
   }
 
+  @Test
+  public void testReplyTimeouts() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(300, mailConfig.getGreetingTimeout());
+    assertEquals(600, mailConfig.getEndOfDataTimeout());
+    assertEquals(180, mailConfig.getDataBlockTimeout());
+    assertEquals(TimeUnit.SECONDS, mailConfig.getReplyTimeoutUnit());
+    mailConfig.setGreetingTimeout(1).setEhloTimeout(2).setAuthTimeout(3).setEnvelopeTimeout(4).setEndOfDataTimeout(5)
+      .setDataBlockTimeout(6).setReplyTimeoutUnit(TimeUnit.MINUTES);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(1, config.getGreetingTimeout());
+    assertEquals(2, config.getEhloTimeout());
+    assertEquals(3, config.getAuthTimeout());
+    assertEquals(4, config.getEnvelopeTimeout());
+    assertEquals(5, config.getEndOfDataTimeout());
+    assertEquals(6, config.getDataBlockTimeout());
+    assertEquals(TimeUnit.MINUTES, config.getReplyTimeoutUnit());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplyTimeoutIllegal() {
+    new MailConfig().setEndOfDataTimeout(-1);
+  }
+
+  @Test
+  public void testMaxInFlightBytes() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(0L, mailConfig.getMaxInFlightBytes());
+    assertFalse(mailConfig.isFailFastOnMaxInFlightBytes());
+    mailConfig.setMaxInFlightBytes(1000).setFailFastOnMaxInFlightBytes(true);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(1000L, config.getMaxInFlightBytes());
+    assertTrue(config.isFailFastOnMaxInFlightBytes());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxInFlightBytesIllegal() {
+    new MailConfig().setMaxInFlightBytes(-1);
+  }
+
+  @Test
+  public void testRetry() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(1, mailConfig.getMaxSendAttempts());
+    assertEquals(TimeUnit.MILLISECONDS, mailConfig.getRetryDelayUnit());
+    mailConfig.setMaxSendAttempts(5).setRetryInitialDelay(1).setRetryMaxDelay(30).setRetryDeadline(120)
+      .setRetryDelayUnit(TimeUnit.SECONDS);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(5, config.getMaxSendAttempts());
+    assertEquals(1, config.getRetryInitialDelay());
+    assertEquals(30, config.getRetryMaxDelay());
+    assertEquals(120, config.getRetryDeadline());
+    assertEquals(TimeUnit.SECONDS, config.getRetryDelayUnit());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxSendAttemptsIllegal() {
+    new MailConfig().setMaxSendAttempts(0);
+  }
+
+  @Test
+  public void testCircuitBreaker() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(0, mailConfig.getCircuitBreakerFailureThreshold());
+    assertEquals(0, mailConfig.getCircuitBreakerErrorRate());
+    mailConfig.setCircuitBreakerFailureThreshold(3).setCircuitBreakerErrorRate(50).setCircuitBreakerWindowSize(10)
+      .setCircuitBreakerResetTimeout(2).setCircuitBreakerResetTimeoutUnit(TimeUnit.MINUTES);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(3, config.getCircuitBreakerFailureThreshold());
+    assertEquals(50, config.getCircuitBreakerErrorRate());
+    assertEquals(10, config.getCircuitBreakerWindowSize());
+    assertEquals(2, config.getCircuitBreakerResetTimeout());
+    assertEquals(TimeUnit.MINUTES, config.getCircuitBreakerResetTimeoutUnit());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCircuitBreakerErrorRateIllegal() {
+    new MailConfig().setCircuitBreakerErrorRate(101);
+  }
+
+  @Test
+  public void testRateLimits() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(0, mailConfig.getMaxMessagesPerSecond());
+    mailConfig.setMaxMessagesPerSecond(10).setMaxRecipientsPerSecond(100).setMaxBytesPerSecond(1_000_000);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(10, config.getMaxMessagesPerSecond());
+    assertEquals(100, config.getMaxRecipientsPerSecond());
+    assertEquals(1_000_000L, config.getMaxBytesPerSecond());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test
+  public void testAdaptiveConcurrency() {
+    MailConfig mailConfig = new MailConfig();
+    assertFalse(mailConfig.isAdaptiveConcurrency());
+    mailConfig.setAdaptiveConcurrency(true).setAdaptiveConcurrencyMaxLatency(2000);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertTrue(config.isAdaptiveConcurrency());
+    assertEquals(2000, config.getAdaptiveConcurrencyMaxLatency());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test
+  public void testMaxRecipientsPerTransaction() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(0, mailConfig.getMaxRecipientsPerTransaction());
+    mailConfig.setMaxRecipientsPerTransaction(50);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals(50, config.getMaxRecipientsPerTransaction());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test
+  public void testTracingPolicy() {
+    MailConfig mailConfig = new MailConfig();
+    assertEquals(TracingPolicy.PROPAGATE, mailConfig.getTracingPolicy());
+    mailConfig.setTracingPolicy(TracingPolicy.ALWAYS);
+    JsonObject json = new JsonObject(mailConfig.toJson().encode());
+    assertEquals("ALWAYS", json.getString("tracingPolicy"));
+    MailConfig config = new MailConfig(json);
+    assertEquals(TracingPolicy.ALWAYS, config.getTracingPolicy());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test
+  public void testDomainSocketPath() {
+    MailConfig mailConfig = new MailConfig();
+    assertNull(mailConfig.getDomainSocketPath());
+    mailConfig.setDomainSocketPath("/var/spool/postfix/public/smtp.sock");
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals("/var/spool/postfix/public/smtp.sock", config.getDomainSocketPath());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDomainSocketPathIllegal() {
+    new MailConfig().setDomainSocketPath("");
+  }
+
+  @Test
+  public void testLmtp() {
+    MailConfig mailConfig = new MailConfig();
+    assertFalse(mailConfig.isLmtp());
+    mailConfig.setLmtp(true);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertTrue(config.isLmtp());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test
+  public void testSpool() {
+    MailConfig mailConfig = new MailConfig();
+    assertNull(mailConfig.getSpoolPath());
+    assertEquals(MailConfig.DEFAULT_SPOOL_SYNC_INTERVAL, mailConfig.getSpoolSyncInterval());
+    assertEquals(MailConfig.DEFAULT_SPOOL_SEGMENT_SIZE, mailConfig.getSpoolSegmentSize());
+    assertEquals(MailConfig.DEFAULT_SPOOL_MAX_REPLAYS, mailConfig.getSpoolMaxReplays());
+    mailConfig.setSpoolPath("/var/spool/mail-client").setSpoolSyncInterval(0).setSpoolSegmentSize(1024).setSpoolMaxReplays(2);
+    MailConfig config = new MailConfig(mailConfig.toJson());
+    assertEquals("/var/spool/mail-client", config.getSpoolPath());
+    assertEquals(0, config.getSpoolSyncInterval());
+    assertEquals(1024, config.getSpoolSegmentSize());
+    assertEquals(2, config.getSpoolMaxReplays());
+    assertEquals(mailConfig, config);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSpoolSyncIntervalIllegal() {
+    new MailConfig().setSpoolSyncInterval(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSpoolSegmentSizeIllegal() {
+    new MailConfig().setSpoolSegmentSize(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSpoolMaxReplaysIllegal() {
+    new MailConfig().setSpoolMaxReplays(-1);
+  }
+
 }
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+/**
+ * test sending mails to a SMTP server listening on a Unix domain socket
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailDomainSocketTest extends SMTPTestDummy {
+
+  private File socketFile;
+
+  @Before
+  @Override
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+    Assume.assumeTrue("domain sockets need the native transport", vertx.isNativeTransportEnabled());
+    socketFile = File.createTempFile("smtp", ".sock");
+    socketFile.delete();
+    socketFile.deleteOnExit();
+    startSMTP();
+  }
+
+  @Override
+  protected void startSMTP() {
+    smtpServer = new TestSmtpServer(vertx, false, null, SocketAddress.domainSocketAddress(socketFile.getAbsolutePath()));
+  }
+
+  @Test
+  public void testSendMail(TestContext testContext) {
+    // nothing listens on the TCP port
+    MailConfig config = configNoSSL().setPort(1).setDomainSocketPath(socketFile.getAbsolutePath());
+    MailClient mailClient = MailClient.create(vertx, config);
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals("ABCDDEF0123456789", result.getStatistics().getQueueId());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testNoServer(TestContext testContext) {
+    MailConfig config = configNoSSL().setDomainSocketPath(socketFile.getAbsolutePath() + ".missing");
+    MailClient mailClient = MailClient.create(vertx, config);
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t ->
+      mailClient.close().onComplete(testContext.asyncAssertSuccess())));
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * test the JDK Flight Recorder events of the connections and transactions
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailFlightRecorderTest extends SMTPTestDummy {
+
+  @Test
+  public void testEvents(TestContext testContext) {
+    Recording recording = new Recording();
+    recording.enable("io.vertx.mail.ConnectionAcquire");
+    recording.enable("io.vertx.mail.ConnectionCreate");
+    recording.enable("io.vertx.mail.ConnectionClose");
+    recording.enable("io.vertx.mail.Transaction");
+    recording.start();
+
+    MailClient mailClient = MailClient.create(vertx, configNoSSL());
+    mailClient.sendMail(exampleMessage())
+      .compose(result -> mailClient.close())
+      .onComplete(testContext.asyncAssertSuccess(v -> {
+        recording.stop();
+        List<RecordedEvent> events = events(recording);
+        recording.close();
+
+        RecordedEvent transaction = event(events, "io.vertx.mail.Transaction");
+        testContext.assertEquals("localhost:1587", transaction.getString("server"));
+        testContext.assertEquals(1, transaction.getInt("recipients"));
+        testContext.assertEquals(1, transaction.getInt("acceptedRecipients"));
+        testContext.assertEquals(250, transaction.getInt("replyCode"));
+        testContext.assertTrue(transaction.getLong("size") > 0);
+
+        RecordedEvent acquire = event(events, "io.vertx.mail.ConnectionAcquire");
+        testContext.assertTrue(acquire.getBoolean("succeeded"));
+        testContext.assertFalse(acquire.getBoolean("reused"));
+
+        RecordedEvent create = event(events, "io.vertx.mail.ConnectionCreate");
+        testContext.assertTrue(create.getBoolean("succeeded"));
+
+        RecordedEvent close = event(events, "io.vertx.mail.ConnectionClose");
+        testContext.assertEquals(1L, close.getLong("mailsSent"));
+        testContext.assertFalse(close.getBoolean("unexpected"));
+      }));
+  }
+
+  private static List<RecordedEvent> events(Recording recording) {
+    try {
+      Path file = Files.createTempFile("mail", ".jfr");
+      try {
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+      } finally {
+        Files.delete(file);
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static RecordedEvent event(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> found = events.stream()
+      .filter(e -> e.getEventType().getName().equals(name))
+      .collect(Collectors.toList());
+    if (found.size() != 1) {
+      throw new AssertionError("expected one " + name + " event, got " + found.size());
+    }
+    return found.get(0);
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.SMTPException;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test the delivery status of each recipient with LMTP
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailLmtpTest extends SMTPTestDummy {
+
+  private static final String[][] ENVELOPE = {
+    {"220 example.com LMTP"},
+    {"LHLO"},
+    {"250-example.com\n" +
+      "250 SIZE 1000000"},
+    {"MAIL FROM"},
+    {"250 2.1.0 Ok"},
+    {"RCPT TO:<a@example.com>"},
+    {"250 2.1.5 Ok"},
+    {"RCPT TO:<b@example.com>"},
+    {"250 2.1.5 Ok"},
+    {"RCPT TO:<c@example.com>"},
+    {"250 2.1.5 Ok"},
+    {"DATA"},
+    {"354 End data with <CR><LF>.<CR><LF>"},
+    // one reply per recipient
+    {"250 2.0.0 <a@example.com> Ok: queued as ABCDDEF0123456789",
+      "452 4.2.2 <b@example.com> mailbox full",
+      "550 5.1.1 <c@example.com> mailbox unknown"},
+  };
+
+  private MailMessage message() {
+    return exampleMessage().setTo(Arrays.asList("a@example.com", "b@example.com", "c@example.com"));
+  }
+
+  @Test
+  public void testRecipientFailures(TestContext testContext) {
+    smtpServer.setDialogueArray(dialogue(ENVELOPE,
+      new String[] {"QUIT"},
+      new String[] {"221 2.0.0 Bye"}));
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setLmtp(true));
+    mailClient.sendMail(message()).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(Collections.singletonList("a@example.com"), result.getRecipients());
+      testContext.assertEquals(Arrays.asList("b@example.com", "c@example.com"), new ArrayList<>(result.getRecipientFailures().keySet()));
+      testContext.assertEquals("452 4.2.2 <b@example.com> mailbox full", result.getRecipientFailures().get("b@example.com"));
+      testContext.assertEquals("ABCDDEF0123456789", result.getStatistics().getQueueId());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  /**
+   * the recipient failing with a transient reply is sent the mail again
+   */
+  @Test
+  public void testRetryTransientRecipient(TestContext testContext) {
+    smtpServer.setDialogueArray(dialogue(ENVELOPE,
+      new String[] {"RSET"},
+      new String[] {"250 2.0.0 Ok"},
+      new String[] {"MAIL FROM"},
+      new String[] {"250 2.1.0 Ok"},
+      new String[] {"RCPT TO:<b@example.com>"},
+      new String[] {"250 2.1.5 Ok"},
+      new String[] {"DATA"},
+      new String[] {"354 End data with <CR><LF>.<CR><LF>"},
+      new String[] {"250 2.0.0 <b@example.com> Ok: queued as ABCDDEF0123456790"},
+      new String[] {"QUIT"},
+      new String[] {"221 2.0.0 Bye"}));
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setLmtp(true)
+      .setMaxSendAttempts(2).setRetryInitialDelay(100).setRetryDelayUnit(TimeUnit.MILLISECONDS));
+    mailClient.sendMail(message()).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(Arrays.asList("a@example.com", "b@example.com"), result.getRecipients());
+      testContext.assertEquals(Collections.singleton("c@example.com"), result.getRecipientFailures().keySet());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testNoRecipientDelivered(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com LMTP",
+      "LHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "550 5.1.1 <user@example.com> mailbox unknown",
+      "QUIT",
+      "221 2.0.0 Bye");
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setLmtp(true));
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertTrue(t instanceof SMTPException);
+      testContext.assertEquals(550, ((SMTPException) t).getReplyCode());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  private static String[][] dialogue(String[][] start, String[]... end) {
+    String[][] dialogue = Arrays.copyOf(start, start.length + end.length);
+    System.arraycopy(end, 0, dialogue, start.length, end.length);
+    return dialogue;
+  }
+
+}
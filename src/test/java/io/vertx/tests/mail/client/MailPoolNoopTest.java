@@ -0,0 +1,107 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test the NOOP commands sent on the connections idle in the pool
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailPoolNoopTest extends SMTPTestDummy {
+
+  private MailConfig noopConfig() {
+    return configNoSSL()
+      .setPoolCleanerPeriod(100)
+      .setKeepAliveTimeoutUnit(TimeUnit.MILLISECONDS)
+      .setKeepAliveTimeout(60_000)
+      .setIdleNoopInterval(1000)
+      .setIdleNoopIntervalUnit(TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * the idle connection is kept alive with a NOOP command and used for the 2nd mail
+   */
+  @Test
+  public void mailAfterNoopTest(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "NOOP",
+      "250 2.0.0 Ok",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, noopConfig());
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      vertx.setTimer(1500, v -> mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result2 ->
+        mailClient.close().onComplete(testContext.asyncAssertSuccess()))));
+    }));
+  }
+
+  /**
+   * the server refuses the NOOP command of the idle connection, the 2nd mail is sent on a new connection
+   */
+  @Test
+  public void mailAfterFailedNoopTest(TestContext testContext) {
+    smtpServer.setCloseImmediately(true)
+      .setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "NOOP",
+      "421 4.4.2 example.com Error: timeout exceeded");
+
+    MailClient mailClient = MailClient.create(vertx, noopConfig());
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      vertx.setTimer(1500, v -> mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result2 ->
+        mailClient.close().onComplete(testContext.asyncAssertSuccess()))));
+    }));
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.Future;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * test the rate limits of the connection pool
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailRateLimitTest extends SMTPTestWiser {
+
+  @Test
+  public void testMaxMessagesPerSecond(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setMaxMessagesPerSecond(2));
+    long start = System.currentTimeMillis();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      futures.add(mailClient.sendMail(exampleMessage()));
+    }
+    // the first 2 mails use the burst, the 4th one waits for one second of tokens
+    Future.all(futures).onComplete(testContext.asyncAssertSuccess(v -> {
+      testContext.assertTrue(System.currentTimeMillis() - start >= 900);
+      testContext.assertEquals(4, wiser.getMessages().size());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testMaxRecipientsPerSecond(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setMaxRecipientsPerSecond(1));
+    long start = System.currentTimeMillis();
+    Future.all(mailClient.sendMail(exampleMessage()), mailClient.sendMail(exampleMessage()))
+      .onComplete(testContext.asyncAssertSuccess(v -> {
+        testContext.assertTrue(System.currentTimeMillis() - start >= 900);
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+  }
+
+}
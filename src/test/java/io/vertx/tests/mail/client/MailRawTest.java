@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.ext.mail.CanonicalizationAlgorithm;
+import io.vertx.ext.mail.DKIMSignAlgorithm;
+import io.vertx.ext.mail.DKIMSignOptions;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.impl.dkim.DKIMSigner;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.apache.james.jdkim.DKIMVerifier;
+import org.apache.james.jdkim.MockPublicKeyRecordRetriever;
+import org.apache.james.jdkim.api.SignatureRecord;
+import org.apache.james.jdkim.impl.Message;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.subethamail.wiser.WiserMessage;
+
+import javax.mail.internet.MimeMessage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * test sending raw messages, which are not encoded by the mail client
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailRawTest extends SMTPTestWiser {
+
+  private static final String privateKey = "MIICdgIBADANBgkqhkiG9w0BAQEFAASCAmAwggJcAgEAAoGBAKqSazYC8pj/JQmo\n" +
+    "2ep0m3Shs6WGyHarknUzRJxiHWIVl2CvvOz2aCo4QCFk7nHjJbSQigA/xRrQ+Mzg\n" +
+    "uNv4n/c+0MjMQscpyhrMYhza89jP3yMRjIEPJxiQzeMgGHTQifiBfB+2a8959YkB\n" +
+    "oOJZuoY0TOEyB+Lm3j000B4evsRdAgMBAAECgYAdSw38dZ8iJVdABG6ANExqSEbo\n" +
+    "22/b6XU6iXZ0AOmY6apYoXWpoFudPJHO6l2E04SrMNNyXYFFLLQ9wy4cIOOfs5yB\n" +
+    "bdZ17tvOqSWT7nsCcuHpUvF89JNXnQvV2xwS6npp/tIuehMfxOxPLdN87Nge7BEy\n" +
+    "6DCSW7U72pX9zjl1BQJBANv56R9X+XLWjW6n4s0tZ271XVYI4DlRxQHYHP3B7eLm\n" +
+    "4DJtoHk65WU3kfHUeBNy/9TmpC25Gw6WTDco+mOS8wsCQQDGgVPCqhNDUcZYMeOH\n" +
+    "X6hm+l8zBeTMF2udQbkl0dRdLFpbMtw3cg+WUjHg3AYv38P2ikSJZzgzdDyZzcxF\n" +
+    "Hcc3AkBXoBNm8upg/mpUW/gSdzWuk3rcnKiE7LenZmkWBDw4mHNSYyz7XaSnTx2J\n" +
+    "0XMLfFHAgyd/Ny85/lDZ4C7tn0nFAkEAkS2mz9lJa1PUZ05dZPWuGVqF47AszKNY\n" +
+    "XlPiEGntEhPNJaQF8TsncT4+IoFouPzDun0XcRKfxOn/JFGiUu5bcwJAGbai+kPl\n" +
+    "AoyfGLxOLu40IMNOHKhHOq8cm3dOC+HpQYpx96JGaQPY4kl3fos6e43DGp9vyOxv\n" +
+    "VMj5fan+wzHLcw==";
+
+  private static final String pubKeyStr =
+    "MIGfMA0GCSqGSIb3DQEBAQUAA4GNADCBiQKBgQCqkms2AvKY/yUJqNnqdJt0obOl" +
+    "hsh2q5J1M0ScYh1iFZdgr7zs9mgqOEAhZO5x4yW0kIoAP8Ua0PjM4Ljb+J/3PtDI" +
+    "zELHKcoazGIc2vPYz98jEYyBDycYkM3jIBh00In4gXwftmvPefWJAaDiWbqGNEzh" +
+    "Mgfi5t49NNAeHr7EXQIDAQAB";
+
+  // headers with a folded line, body lines starting with dots, a bare LF and no final line terminator
+  private static final String RAW_MESSAGE = "From: from@example.com\r\n" +
+    "To: user@example.com\r\n" +
+    "Subject: raw\r\n" +
+    " message\r\n" +
+    "Message-ID: <raw.1@example.com>\r\n" +
+    "\r\n" +
+    ".one dot\r\n" +
+    "..two dots\n" +
+    "trailing space \r\n" +
+    ".";
+
+  private static final String RAW_BODY = ".one dot\n..two dots\ntrailing space \n.\n";
+
+  private static final List<String> RECIPIENTS = Arrays.asList("user@example.com", "other@example.com");
+
+  @Test
+  public void testSendRaw(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientLogin();
+    mailClient.sendRaw("bounce@example.com", RECIPIENTS, Buffer.buffer(RAW_MESSAGE)).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(RECIPIENTS, result.getRecipients());
+      testContext.assertEquals("<raw.1@example.com>", result.getMessageID());
+      assertRawMessage(testContext);
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testSendRawStream(TestContext testContext) throws Exception {
+    this.testContext = testContext;
+    File file = File.createTempFile("raw", ".eml");
+    file.deleteOnExit();
+    vertx.fileSystem().writeFileBlocking(file.getPath(), Buffer.buffer(RAW_MESSAGE));
+    MailClient mailClient = mailClientLogin();
+    mailClient.sendRawStream("bounce@example.com", RECIPIENTS, vertx.fileSystem().openBlocking(file.getPath(), new OpenOptions()))
+      .onComplete(testContext.asyncAssertSuccess(result -> {
+        testContext.assertEquals(RECIPIENTS, result.getRecipients());
+        assertRawMessage(testContext);
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+  }
+
+  @Test
+  public void testSendRawSimpleSimpleDKIM(TestContext testContext) {
+    testSendRawDKIM(testContext, CanonicalizationAlgorithm.SIMPLE);
+  }
+
+  @Test
+  public void testSendRawRelaxedRelaxedDKIM(TestContext testContext) {
+    testSendRawDKIM(testContext, CanonicalizationAlgorithm.RELAXED);
+  }
+
+  private void testSendRawDKIM(TestContext testContext, CanonicalizationAlgorithm canonicalization) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.create(vertx, configLogin().setEnableDKIM(true).addDKIMSignOption(dkimOptions(canonicalization)));
+    mailClient.sendRaw("bounce@example.com", RECIPIENTS, Buffer.buffer(RAW_MESSAGE)).onComplete(testContext.asyncAssertSuccess(result -> {
+      try {
+        assertRawMessage(testContext);
+        Message jamesMessage = new Message(new ByteArrayInputStream(wiser.getMessages().get(0).getData()));
+        testContext.assertEquals(1, jamesMessage.getFields(DKIMSigner.DKIM_SIGNATURE_HEADER).size());
+        MockPublicKeyRecordRetriever recordRetriever = new MockPublicKeyRecordRetriever();
+        recordRetriever.addRecord("lgao", "example.com", "v=DKIM1; k=rsa; p=" + pubKeyStr);
+        List<SignatureRecord> records = new DKIMVerifier(recordRetriever).verify(jamesMessage, jamesMessage.getBodyInputStream());
+        testContext.assertEquals("example.com", records.get(0).getDToken());
+      } catch (Exception e) {
+        testContext.fail(e);
+      }
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testSendRawStreamDKIM(TestContext testContext) throws Exception {
+    this.testContext = testContext;
+    File file = File.createTempFile("raw", ".eml");
+    file.deleteOnExit();
+    vertx.fileSystem().writeFileBlocking(file.getPath(), Buffer.buffer(RAW_MESSAGE));
+    MailClient mailClient = MailClient.create(vertx, configLogin().setEnableDKIM(true)
+      .addDKIMSignOption(dkimOptions(CanonicalizationAlgorithm.RELAXED)));
+    mailClient.sendRawStream("bounce@example.com", RECIPIENTS, vertx.fileSystem().openBlocking(file.getPath(), new OpenOptions()))
+      .onComplete(testContext.asyncAssertFailure(t -> {
+        testContext.assertTrue(wiser.getMessages().isEmpty());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+  }
+
+  @Test
+  public void testSendRawNoRecipients(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientLogin();
+    mailClient.sendRaw("bounce@example.com", Collections.emptyList(), Buffer.buffer(RAW_MESSAGE))
+      .onComplete(testContext.asyncAssertFailure(t -> mailClient.close().onComplete(testContext.asyncAssertSuccess())));
+  }
+
+  private DKIMSignOptions dkimOptions(CanonicalizationAlgorithm canonicalization) {
+    return new DKIMSignOptions().setPrivateKey(privateKey).setSdid("example.com").setSelector("lgao")
+      .setSignAlgo(DKIMSignAlgorithm.RSA_SHA256)
+      .setHeaderCanonAlgo(canonicalization).setBodyCanonAlgo(canonicalization);
+  }
+
+  private void assertRawMessage(TestContext testContext) {
+    try {
+      testContext.assertEquals(RECIPIENTS.size(), wiser.getMessages().size());
+      WiserMessage message = wiser.getMessages().get(0);
+      testContext.assertEquals("bounce@example.com", message.getEnvelopeSender());
+      MimeMessage mimeMessage = message.getMimeMessage();
+      testContext.assertEquals("raw message", mimeMessage.getSubject());
+      testContext.assertEquals(RAW_BODY, TestUtils.conv2nl(TestUtils.inputStreamToString(mimeMessage.getInputStream())));
+    } catch (Exception e) {
+      testContext.fail(e);
+    }
+  }
+
+}
@@ -0,0 +1,211 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * test the mails sent to their recipients in several transactions
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailRcptBatchTest extends SMTPTestDummy {
+
+  private static final List<String> RECIPIENTS = Arrays.asList("a@example.com", "b@example.com", "c@example.com");
+
+  @Test
+  public void testMaxRecipientsPerTransaction(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<a@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<b@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<c@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456790",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    testBatches(testContext, configNoSSL().setMaxRecipientsPerTransaction(2));
+  }
+
+  @Test
+  public void testTooManyRecipients(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250-SIZE 1000000\n" +
+        "250 ENHANCEDSTATUSCODES",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<a@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<b@example.com>",
+      "452 4.5.3 Too many recipients",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<b@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<c@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456790",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    testBatches(testContext, configNoSSL());
+  }
+
+  /**
+   * the server announces RCPTMAX=2 and MAILMAX=2 with the LIMITS extension, the connection is closed after 2 mails
+   */
+  @Test
+  public void testLimits(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250-SIZE 1000000\n" +
+        "250 LIMITS MAILMAX=2 RCPTMAX=2",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<a@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<b@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<c@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456790",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    testBatches(testContext, configNoSSL());
+  }
+
+  /**
+   * the second batch fails, the mail must not be reported as sent
+   */
+  @Test
+  public void testSecondBatchFails(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<a@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<b@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<c@example.com>",
+      "550 5.1.1 No such user",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setMaxRecipientsPerTransaction(2));
+    MailMessage message = exampleMessage().setTo(RECIPIENTS);
+    mailClient.sendMail(message).onComplete(testContext.asyncAssertFailure(t ->
+      mailClient.close().onComplete(testContext.asyncAssertSuccess())));
+  }
+
+  /**
+   * the second batch fails when recipient errors are allowed, its recipients are reported as failed and the third
+   * batch is still sent, on a new connection
+   */
+  @Test
+  public void testSecondBatchFailsAllowRcptErrors(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "550 5.7.1 Sender rejected",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setMaxRecipientsPerTransaction(1).setAllowRcptErrors(true));
+    MailMessage message = exampleMessage().setTo(RECIPIENTS);
+    mailClient.sendMail(message).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(Arrays.asList("a@example.com", "c@example.com"), result.getRecipients());
+      testContext.assertEquals(1, result.getRecipientFailures().size());
+      testContext.assertTrue(result.getRecipientFailures().containsKey("b@example.com"));
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  private void testBatches(TestContext testContext, MailConfig config) {
+    MailClient mailClient = MailClient.create(vertx, config);
+    MailMessage message = exampleMessage().setTo(RECIPIENTS);
+    mailClient.sendMail(message).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(RECIPIENTS, result.getRecipients());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+}
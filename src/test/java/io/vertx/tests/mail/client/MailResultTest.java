@@ -21,6 +21,7 @@ package io.vertx.tests.mail.client;
 
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mail.MailResult;
+import io.vertx.ext.mail.MailStatistics;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -79,6 +80,27 @@ public class MailResultTest {
     assertEquals("{\"messageId\":\"12345\",\"recipients\":[\"user1\",\"user2\"]}", result.toJson().encode());
   }
 
+  @Test
+  public final void testStatisticsJson() {
+    MailResult result = new MailResult();
+    result.setStatistics(new MailStatistics().setRoundTrips(4).setBytesWritten(1234).setQueueId("ABCD"));
+    MailResult result2 = new MailResult(result.toJson());
+    assertEquals(4, result2.getStatistics().getRoundTrips());
+    assertEquals(1234, result2.getStatistics().getBytesWritten());
+    assertEquals("ABCD", result2.getStatistics().getQueueId());
+    assertEquals(result.toJson(), new MailResult(result).toJson());
+  }
+
+  @Test
+  public final void testRecipientFailuresJson() {
+    MailResult result = new MailResult();
+    assertEquals("{\"recipients\":[]}", result.toJson().encode());
+    result.getRecipientFailures().put("user@example.com", "452 4.2.2 mailbox full");
+    MailResult result2 = new MailResult(result.toJson());
+    assertEquals("452 4.2.2 mailbox full", result2.getRecipientFailures().get("user@example.com"));
+    assertEquals(result.toJson(), new MailResult(result).toJson());
+  }
+
   /**
    * Test method for {@link io.vertx.ext.mail.MailResult#getMessageID()}.
    */
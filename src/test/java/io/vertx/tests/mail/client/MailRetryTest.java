@@ -0,0 +1,177 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.net.NetServer;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.SMTPException;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test the retries of the mails failing with a transient error
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailRetryTest extends SMTPTestDummy {
+
+  private MailConfig retryConfig() {
+    return configNoSSL()
+      .setMaxSendAttempts(3)
+      .setRetryInitialDelay(100)
+      .setRetryDelayUnit(TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * the recipient refused with a transient reply is retried, the one refused with a permanent reply is not
+   */
+  @Test
+  public void testRetryTransientRecipient(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<a@example.com>",
+      "250 2.1.5 Ok",
+      "RCPT TO:<b@example.com>",
+      "450 4.2.1 mailbox busy",
+      "RCPT TO:<c@example.com>",
+      "550 5.1.1 mailbox unknown",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO:<b@example.com>",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456790",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, retryConfig().setAllowRcptErrors(true));
+    MailMessage message = exampleMessage().setTo(Arrays.asList("a@example.com", "b@example.com", "c@example.com"));
+    mailClient.sendMail(message).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(Arrays.asList("a@example.com", "b@example.com"), result.getRecipients());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  /**
+   * a permanent reply is not retried
+   */
+  @Test
+  public void testNoRetryPermanent(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "550 5.7.1 sender refused",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    // a retry would wait for at least 5 seconds
+    MailClient mailClient = MailClient.create(vertx, retryConfig().setRetryInitialDelay(10_000));
+    long start = System.currentTimeMillis();
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertTrue(t instanceof SMTPException);
+      testContext.assertEquals(550, ((SMTPException) t).getReplyCode());
+      testContext.assertTrue(System.currentTimeMillis() - start < 5000);
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  /**
+   * the connection drops after the end of data line, the server may have accepted the mail so it is not sent again
+   */
+  @Test
+  public void testNoRetryAfterEndOfData(TestContext testContext) {
+    smtpServer.stop();
+    AtomicInteger deliveries = new AtomicInteger();
+    NetServer server = vertx.createNetServer().connectHandler(socket -> {
+      AtomicBoolean data = new AtomicBoolean();
+      socket.handler(RecordParser.newDelimited("\r\n", buffer -> {
+        String line = buffer.toString();
+        if (data.get()) {
+          if (line.equals(".")) {
+            deliveries.incrementAndGet();
+            socket.close();
+          }
+        } else if (line.startsWith("EHLO")) {
+          socket.write("250 example.com\r\n");
+        } else if (line.equals("DATA")) {
+          data.set(true);
+          socket.write("354 End data with <CR><LF>.<CR><LF>\r\n");
+        } else {
+          socket.write("250 2.0.0 Ok\r\n");
+        }
+      }));
+      socket.write("220 example.com ESMTP\r\n");
+    });
+    server.listen(1587).onComplete(testContext.asyncAssertSuccess(s -> {
+      MailClient mailClient = MailClient.create(vertx, retryConfig());
+      mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+        testContext.assertEquals(1, deliveries.get());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess(v -> server.close().onComplete(testContext.asyncAssertSuccess())));
+      }));
+    }));
+  }
+
+  /**
+   * the connection is refused until the server is started
+   */
+  @Test
+  public void testRetryConnectionRefused(TestContext testContext) {
+    smtpServer.stop();
+    // the retry happens after at least 500 ms
+    MailClient mailClient = MailClient.create(vertx, retryConfig().setRetryInitialDelay(1000));
+    vertx.setTimer(100, id -> {
+      smtpServer = new TestSmtpServer(vertx, false, null);
+      smtpServer.setDialogue("220 example.com ESMTP",
+        "EHLO",
+        "250-example.com\n" +
+          "250 SIZE 1000000",
+        "MAIL FROM",
+        "250 2.1.0 Ok",
+        "RCPT TO",
+        "250 2.1.5 Ok",
+        "DATA",
+        "354 End data with <CR><LF>.<CR><LF>",
+        "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+        "QUIT",
+        "221 2.0.0 Bye");
+    });
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result ->
+      mailClient.close().onComplete(testContext.asyncAssertSuccess())));
+  }
+
+}
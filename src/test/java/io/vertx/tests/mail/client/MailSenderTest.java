@@ -0,0 +1,100 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.MailSender;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * test the bounded mail sender
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailSenderTest extends SMTPTestWiser {
+
+  private static final int MAILS = 10;
+
+  @Test
+  public void testWriteQueueMaxSize(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientDefault();
+    MailSender sender = mailClient.sender().setWriteQueueMaxSize(2);
+    AtomicInteger written = new AtomicInteger();
+    writeWhileNotFull(testContext, sender, written, 2, this::exampleMessage, () -> sender.end().onComplete(testContext.asyncAssertSuccess(v -> {
+      testContext.assertEquals(MAILS, written.get());
+      testContext.assertEquals(MAILS, wiser.getMessages().size());
+      testContext.assertEquals(0, sender.inFlightMails());
+      testContext.assertEquals(0L, sender.inFlightBytes());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    })));
+  }
+
+  @Test
+  public void testWriteQueueMaxBytes(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientDefault();
+    // each mail has an attachment of 3000 bytes, base64 encoded to 4000 bytes
+    MailSender sender = mailClient.sender().setWriteQueueMaxBytes(10000);
+    AtomicInteger written = new AtomicInteger();
+    writeWhileNotFull(testContext, sender, written, 3, () -> exampleMessage()
+      .setAttachment(MailAttachment.create()
+        .setContentType("application/octet-stream")
+        .setData(Buffer.buffer(new byte[3000]))),
+      () -> sender.end().onComplete(testContext.asyncAssertSuccess(v -> {
+        testContext.assertEquals(MAILS, written.get());
+        testContext.assertEquals(MAILS, wiser.getMessages().size());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      })));
+  }
+
+  @Test
+  public void testWriteAfterEnd(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientDefault();
+    MailSender sender = mailClient.sender();
+    sender.end().onComplete(testContext.asyncAssertSuccess(v ->
+      sender.write(exampleMessage()).onComplete(testContext.asyncAssertFailure(t ->
+        mailClient.close().onComplete(testContext.asyncAssertSuccess())))));
+  }
+
+  /**
+   * write the mails like a pipe does, waiting for the drain handler when the write queue is full
+   */
+  private void writeWhileNotFull(TestContext testContext, MailSender sender, AtomicInteger written, int maxInFlight,
+                                 Supplier<MailMessage> mails, Runnable allWritten) {
+    while (written.get() < MAILS && !sender.writeQueueFull()) {
+      written.incrementAndGet();
+      sender.write(mails.get()).onComplete(testContext.asyncAssertSuccess());
+      testContext.assertTrue(sender.inFlightMails() <= maxInFlight);
+    }
+    if (written.get() < MAILS) {
+      sender.drainHandler(v -> writeWhileNotFull(testContext, sender, written, maxInFlight, mails, allWritten));
+    } else {
+      allWritten.run();
+    }
+  }
+
+}
@@ -0,0 +1,212 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * test the durable spool of the mails being sent
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailSpoolTest extends SMTPTestWiser {
+
+  private static final String RAW_MESSAGE = "From: from@example.com\r\n" +
+    "To: user@example.com\r\n" +
+    "Subject: raw\r\n" +
+    "\r\n" +
+    "raw message\r\n";
+
+  private static final Pattern MESSAGE_ID = Pattern.compile("<msg\\.[^>]*>");
+
+  private Path spoolPath;
+
+  @Before
+  public void createSpool() throws IOException {
+    spoolPath = Files.createTempDirectory("mail-spool");
+  }
+
+  @After
+  public void deleteSpool() throws IOException {
+    try (Stream<Path> files = Files.walk(spoolPath)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  @Test
+  public void testSentMailsAreNotReplayed(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = MailClient.create(vertx, spoolConfig());
+    mailClient.sendMail(exampleMessage())
+      .compose(result -> mailClient.sendRaw("from@example.com", Collections.singletonList("user@example.com"), Buffer.buffer(RAW_MESSAGE)))
+      .compose(result -> mailClient.close())
+      .onComplete(testContext.asyncAssertSuccess(v -> {
+        testContext.assertEquals(2, wiser.getMessages().size());
+        MailClient reopened = MailClient.create(vertx, spoolConfig());
+        vertx.setTimer(500, id -> {
+          testContext.assertEquals(2, wiser.getMessages().size());
+          reopened.close().onComplete(testContext.asyncAssertSuccess());
+        });
+      }));
+  }
+
+  @Test
+  public void testReplayAfterCrash(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    // the process stops while the client waits to retry, no server is listening on the port
+    Vertx crashed = Vertx.vertx();
+    MailClient mailClient = MailClient.create(crashed, spoolConfig().setPort(1588).setMaxSendAttempts(2).setRetryInitialDelay(10_000));
+    mailClient.sendMail(exampleMessage());
+    mailClient.sendRaw("from@example.com", Collections.singletonList("user@example.com"), Buffer.buffer(RAW_MESSAGE));
+    // the client is closed with its Vert.x instance, the lock of the spool is released like on a crash
+    vertx.setTimer(500, id -> mailClient.close().eventually(crashed::close).onComplete(testContext.asyncAssertSuccess(v -> {
+      String messageId = null;
+      try {
+        try (Stream<Path> files = Files.list(spoolPath)) {
+          Path segment = files.filter(file -> file.toString().endsWith(".journal")).max(Comparator.naturalOrder()).get();
+          // the Message-ID generated for the mail is journaled with it
+          Matcher matcher = MESSAGE_ID.matcher(new String(Files.readAllBytes(segment), StandardCharsets.ISO_8859_1));
+          testContext.assertTrue(matcher.find());
+          messageId = matcher.group();
+          // a record torn by the crash
+          Files.write(segment, new byte[]{0, 0, 1, 0, 1, 0}, StandardOpenOption.APPEND);
+        }
+      } catch (IOException e) {
+        testContext.fail(e);
+      }
+      final String journaledId = messageId;
+      MailClient replayed = MailClient.create(vertx, spoolConfig());
+      vertx.setPeriodic(100, timer -> {
+        if (wiser.getMessages().size() == 2) {
+          vertx.cancelTimer(timer);
+          testContext.assertTrue(wiser.getMessages().stream().anyMatch(message -> new String(message.getData()).contains("raw message")));
+          testContext.assertTrue(wiser.getMessages().stream().anyMatch(message -> new String(message.getData()).contains("Message-ID: " + journaledId)));
+          replayed.close().onComplete(testContext.asyncAssertSuccess(c -> async.complete()));
+        }
+      });
+    })));
+  }
+
+  /**
+   * a failed write leaves a torn record at the end of the segment, the records written after it are replayed
+   */
+  @Test
+  public void testReplayAfterTornRecord(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    Vertx crashed = Vertx.vertx();
+    MailClient mailClient = MailClient.create(crashed, spoolConfig().setPort(1588).setMaxSendAttempts(2).setRetryInitialDelay(10_000));
+    mailClient.sendRaw("from@example.com", Collections.singletonList("user@example.com"), Buffer.buffer(RAW_MESSAGE));
+    vertx.setTimer(500, id -> {
+      try {
+        // the bytes of the write which failed
+        Files.write(currentSegment(), new byte[]{0, 0, 1, 0, 1, 0}, StandardOpenOption.APPEND);
+      } catch (IOException e) {
+        testContext.fail(e);
+      }
+      mailClient.sendRaw("from@example.com", Collections.singletonList("user@example.com"), Buffer.buffer(RAW_MESSAGE.replace("raw message", "after the torn record")));
+      vertx.setTimer(500, id2 -> mailClient.close().eventually(crashed::close).onComplete(testContext.asyncAssertSuccess(v -> {
+        MailClient replayed = MailClient.create(vertx, spoolConfig());
+        vertx.setPeriodic(100, timer -> {
+          if (wiser.getMessages().size() == 2) {
+            vertx.cancelTimer(timer);
+            testContext.assertTrue(wiser.getMessages().stream().anyMatch(message -> new String(message.getData()).contains("raw message")));
+            testContext.assertTrue(wiser.getMessages().stream().anyMatch(message -> new String(message.getData()).contains("after the torn record")));
+            replayed.close().onComplete(testContext.asyncAssertSuccess(c -> async.complete()));
+          }
+        });
+      })));
+    });
+  }
+
+  /**
+   * the mail fails with a transient error, it is kept in the spool and sent again once the server is back
+   */
+  @Test
+  public void testReplayAfterTransientFailure(TestContext testContext) {
+    this.testContext = testContext;
+    Async async = testContext.async();
+    stopSMTP();
+    MailClient mailClient = MailClient.create(vertx, spoolConfig().setRetryInitialDelay(500));
+    mailClient.sendRaw("from@example.com", Collections.singletonList("user@example.com"), Buffer.buffer(RAW_MESSAGE))
+      .onComplete(testContext.asyncAssertFailure(t -> {
+        startSMTP();
+        vertx.setPeriodic(100, timer -> {
+          if (wiser.getMessages().size() == 1) {
+            vertx.cancelTimer(timer);
+            testContext.assertTrue(new String(wiser.getMessages().get(0).getData()).contains("raw message"));
+            // the mail is acknowledged once sent, it is not replayed by the next client
+            mailClient.close().onComplete(testContext.asyncAssertSuccess(v -> {
+              MailClient reopened = MailClient.create(vertx, spoolConfig());
+              vertx.setTimer(500, id -> {
+                testContext.assertEquals(1, wiser.getMessages().size());
+                reopened.close().onComplete(testContext.asyncAssertSuccess(c -> async.complete()));
+              });
+            }));
+          }
+        });
+      }));
+  }
+
+  @Test
+  public void testSpoolLocked(TestContext testContext) {
+    MailClient mailClient = MailClient.create(vertx, spoolConfig());
+    try {
+      MailClient.create(vertx, spoolConfig());
+      testContext.fail("the spool is used by another mail client");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    mailClient.close().onComplete(testContext.asyncAssertSuccess(v -> {
+      // the lock is released once the spool is closed
+      MailClient.create(vertx, spoolConfig()).close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  private Path currentSegment() throws IOException {
+    try (Stream<Path> files = Files.list(spoolPath)) {
+      return files.filter(file -> file.toString().endsWith(".journal")).max(Comparator.naturalOrder()).get();
+    }
+  }
+
+  private MailConfig spoolConfig() {
+    return configLogin().setSpoolPath(spoolPath.toString()).setSpoolSyncInterval(0);
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.mail.MailStatistics;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test the timings and wire statistics of the mail results
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailStatisticsTest extends SMTPTestDummy {
+
+  @Test
+  public void testStatistics(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 OK id=1qXyZa-0001Ab-Cd",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, configNoSSL());
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      MailStatistics statistics = result.getStatistics();
+      testContext.assertNotNull(statistics);
+      testContext.assertFalse(statistics.isConnectionReused());
+      testContext.assertTrue(statistics.getConnectTime() > 0);
+      testContext.assertTrue(statistics.getHandshakeTime() > 0);
+      testContext.assertEquals(0L, statistics.getResetTime());
+      testContext.assertTrue(statistics.getEnvelopeTime() > 0);
+      testContext.assertTrue(statistics.getEndOfDataTime() > 0);
+      testContext.assertTrue(statistics.getBytesWritten() > 0);
+      testContext.assertTrue(statistics.getDataWrites() > 0);
+      // MAIL FROM, RCPT TO, DATA and the end of data line
+      testContext.assertEquals(4, statistics.getRoundTrips());
+      testContext.assertEquals("ABCDDEF0123456789", statistics.getQueueId());
+      mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result2 -> {
+        MailStatistics statistics2 = result2.getStatistics();
+        testContext.assertTrue(statistics2.isConnectionReused());
+        testContext.assertEquals(0L, statistics2.getConnectTime());
+        testContext.assertEquals(0L, statistics2.getHandshakeTime());
+        testContext.assertTrue(statistics2.getResetTime() > 0);
+        // RSET, MAIL FROM, RCPT TO, DATA and the end of data line
+        testContext.assertEquals(5, statistics2.getRoundTrips());
+        testContext.assertEquals("1qXyZa-0001Ab-Cd", statistics2.getQueueId());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+    }));
+  }
+
+}
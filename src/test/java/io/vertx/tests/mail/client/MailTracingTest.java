@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.client;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.spi.tracing.SpanKind;
+import io.vertx.core.spi.tracing.TagExtractor;
+import io.vertx.core.spi.tracing.VertxTracer;
+import io.vertx.core.tracing.TracingOptions;
+import io.vertx.core.tracing.TracingPolicy;
+import io.vertx.ext.mail.MailClient;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * test the spans of the sendMail operations reported to a fake tracer
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailTracingTest extends SMTPTestDummy {
+
+  private final List<String> operations = new CopyOnWriteArrayList<>();
+  private final List<Map<String, String>> requestTags = new CopyOnWriteArrayList<>();
+  private final List<Map<String, String>> responseTags = new CopyOnWriteArrayList<>();
+
+  private class FakeTracer implements VertxTracer<String, String> {
+    @Override
+    public <R> String sendRequest(Context context, SpanKind kind, TracingPolicy policy, R request, String operation,
+                                  BiConsumer<String, String> headers, TagExtractor<R> tagExtractor) {
+      operations.add(operation);
+      requestTags.add(tagExtractor.extract(request));
+      return operation;
+    }
+
+    @Override
+    public <R> void receiveResponse(Context context, R response, String payload, Throwable failure,
+                                    TagExtractor<R> tagExtractor) {
+      responseTags.add(tagExtractor.extract(response));
+    }
+  }
+
+  @Before
+  @Override
+  public void setUp() throws Exception {
+    vertx = Vertx.builder()
+      .with(new VertxOptions().setTracingOptions(new TracingOptions()))
+      .withTracer(options -> new FakeTracer())
+      .build();
+    startSMTP();
+  }
+
+  @Test
+  public void testSpan(TestContext testContext) {
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setTracingPolicy(TracingPolicy.ALWAYS));
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertEquals(1, operations.size());
+      testContext.assertEquals("send", operations.get(0));
+      Map<String, String> request = requestTags.get(0);
+      testContext.assertEquals("localhost", request.get("server.address"));
+      testContext.assertEquals("1587", request.get("server.port"));
+      testContext.assertEquals("1", request.get("smtp.recipient_count"));
+      testContext.assertNotNull(request.get("smtp.message_size"));
+      testContext.assertEquals(1, responseTags.size());
+      Map<String, String> response = responseTags.get(0);
+      testContext.assertEquals("1", response.get("smtp.recipients_accepted"));
+      testContext.assertEquals("ABCDDEF0123456789", response.get("smtp.queue_id"));
+      testContext.assertEquals("false", response.get("smtp.connection_reused"));
+      testContext.assertNotNull(response.get("smtp.encode_ns"));
+      testContext.assertNull(response.get("smtp.dkim_sign_ns"));
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testFailedSpan(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "550 5.7.1 sender refused",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setTracingPolicy(TracingPolicy.ALWAYS));
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertEquals(1, responseTags.size());
+      testContext.assertEquals("550", responseTags.get(0).get("smtp.reply_code"));
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testIgnore(TestContext testContext) {
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setTracingPolicy(TracingPolicy.IGNORE));
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(result -> {
+      testContext.assertTrue(operations.isEmpty());
+      testContext.assertTrue(responseTags.isEmpty());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+}
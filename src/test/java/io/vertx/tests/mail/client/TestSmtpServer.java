@@ -24,6 +24,7 @@ import io.vertx.core.net.JksOptions;
 import io.vertx.core.net.NetServer;
 import io.vertx.core.net.NetServerOptions;
 import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.SocketAddress;
 import io.vertx.core.parsetools.RecordParser;
 
 import java.util.Locale;
@@ -47,10 +48,18 @@ public class TestSmtpServer {
 
   private boolean ssl;
   private String keystore;
+  private SocketAddress address;
   /*
    * set up server with a default reply that works for EHLO and no login with one recipient
    */
   public TestSmtpServer(Vertx vertx, boolean ssl, String keystore) {
+    this(vertx, ssl, keystore, null);
+  }
+
+  /*
+   * set up server listening on an address, e.g. a domain socket, instead of the default port
+   */
+  public TestSmtpServer(Vertx vertx, boolean ssl, String keystore, SocketAddress address) {
     log.debug("starting TestSmtpServer");
     setDialogue("220 example.com ESMTP",
         "EHLO",
@@ -68,6 +77,7 @@ public class TestSmtpServer {
         "221 2.0.0 Bye");
     this.ssl = ssl;
     this.keystore = keystore;
+    this.address = address;
     startServer(vertx);
   }
 
@@ -171,7 +181,7 @@ public class TestSmtpServer {
       }
     });
     CountDownLatch latch = new CountDownLatch(1);
-    netServer.listen().onComplete(r -> latch.countDown());
+    (address != null ? netServer.listen(address) : netServer.listen()).onComplete(r -> latch.countDown());
     try {
       latch.await();
     } catch (InterruptedException e) {
@@ -46,4 +46,26 @@ public class CapabilitiesTest {
     testContext.assertTrue(capa.getCapaAuth().iterator().next().equals("PLAIN"));
   }
 
+  @Test
+  public void testLimits(TestContext testContext) {
+    String message = "250-localhost\n" +
+      "250-PIPELINING\n" +
+      "250-LIMITS MAILMAX=1000 RCPTMAX=50 RCPTDOMAINMAX=5 FOO=BAR\n" +
+      "250 Ok";
+    Capabilities capa = new Capabilities();
+    capa.parseCapabilities(message);
+    testContext.assertEquals(1000, capa.getMailMax());
+    testContext.assertEquals(50, capa.getRcptMax());
+    testContext.assertEquals(5, capa.getRcptDomainMax());
+  }
+
+  @Test
+  public void testNoLimits(TestContext testContext) {
+    Capabilities capa = new Capabilities();
+    capa.parseCapabilities("250-localhost\n250 LIMITS RCPTMAX=x");
+    testContext.assertEquals(0, capa.getMailMax());
+    testContext.assertEquals(0, capa.getRcptMax());
+    testContext.assertEquals(0, capa.getRcptDomainMax());
+  }
+
 }
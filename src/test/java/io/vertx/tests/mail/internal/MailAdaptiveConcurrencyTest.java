@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.internal;
+
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.impl.MailClientImpl;
+import io.vertx.ext.mail.impl.SMTPConnectionPool;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.tests.mail.client.SMTPTestDummy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test the adaptive limit of concurrent mail transactions
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailAdaptiveConcurrencyTest extends SMTPTestDummy {
+
+  @Test
+  public void testLimitDecreasedOn421(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "421 4.7.0 too many concurrent transactions",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailConfig config = configNoSSL().setMaxPoolSize(4).setAdaptiveConcurrency(true);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    testContext.assertEquals(4, pool.concurrencyLimit());
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertEquals(3, pool.concurrencyLimit());
+      testContext.assertEquals(0, pool.concurrencyInFlight());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testLimitKeptOnSuccess(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    MailConfig config = configNoSSL().setMaxPoolSize(4).setAdaptiveConcurrency(true);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(r -> {
+      testContext.assertEquals(4, pool.concurrencyLimit());
+      testContext.assertEquals(0, pool.concurrencyInFlight());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  @Test
+  public void testLimitKeptWhenThrottled(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "RSET",
+      "250 2.0.0 Ok",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456790",
+      "QUIT",
+      "221 2.0.0 Bye");
+
+    // the second mail waits for the rate limit longer than the max latency, which is not a latency of the server
+    MailConfig config = configNoSSL().setMaxPoolSize(4).setAdaptiveConcurrency(true)
+      .setAdaptiveConcurrencyMaxLatency(200).setMaxMessagesPerSecond(1);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    mailClient.sendMail(exampleMessage())
+      .compose(r -> mailClient.sendMail(exampleMessage()))
+      .onComplete(testContext.asyncAssertSuccess(r -> {
+        testContext.assertEquals(4, pool.concurrencyLimit());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+  }
+
+}
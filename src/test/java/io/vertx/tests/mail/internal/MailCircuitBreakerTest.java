@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.internal;
+
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.SMTPCircuitOpenException;
+import io.vertx.ext.mail.impl.MailClientImpl;
+import io.vertx.ext.mail.impl.SMTPConnectionPool;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.tests.mail.client.SMTPTestDummy;
+import io.vertx.tests.mail.client.TestSmtpServer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test the circuit breaker of the connection pool
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailCircuitBreakerTest extends SMTPTestDummy {
+
+  @Test
+  public void testCircuitBreaker(TestContext testContext) {
+    MailConfig config = configNoSSL()
+      .setCircuitBreakerFailureThreshold(2)
+      .setCircuitBreakerResetTimeout(500)
+      .setCircuitBreakerResetTimeoutUnit(TimeUnit.MILLISECONDS);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    // no server is listening, the connections are refused
+    mailClient.sendMail(exampleMessage())
+      .recover(t -> mailClient.sendMail(exampleMessage()))
+      .onComplete(testContext.asyncAssertFailure(t -> {
+        testContext.assertEquals("OPEN", pool.circuitBreakerState());
+        testContext.assertEquals(1L, pool.circuitBreakerOpenings());
+        mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(open -> {
+          testContext.assertTrue(open instanceof SMTPCircuitOpenException);
+          startServer();
+          vertx.setTimer(600, id -> mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertSuccess(r -> {
+            testContext.assertEquals("CLOSED", pool.circuitBreakerState());
+            mailClient.close().onComplete(testContext.asyncAssertSuccess());
+          })));
+        }));
+      }));
+  }
+
+  /**
+   * the probe fails with a permanent reply, which opens the circuit again
+   */
+  @Test
+  public void testProbeFailsPermanently(TestContext testContext) {
+    MailConfig config = configNoSSL()
+      .setCircuitBreakerFailureThreshold(1)
+      .setCircuitBreakerResetTimeout(500)
+      .setCircuitBreakerResetTimeoutUnit(TimeUnit.MILLISECONDS);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertEquals("OPEN", pool.circuitBreakerState());
+      smtpServer = new TestSmtpServer(vertx, false, null);
+      smtpServer.setDialogue("554 5.3.2 service not available");
+      smtpServer.setCloseImmediately(true);
+      vertx.setTimer(600, id -> mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(probe -> {
+        testContext.assertEquals("OPEN", pool.circuitBreakerState());
+        testContext.assertEquals(2L, pool.circuitBreakerOpenings());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      })));
+    }));
+  }
+
+  private void startServer() {
+    smtpServer = new TestSmtpServer(vertx, false, null);
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM",
+      "250 2.1.0 Ok",
+      "RCPT TO",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "QUIT",
+      "221 2.0.0 Bye");
+  }
+
+  @Override
+  protected void startSMTP() {
+    // the server is started once the circuit breaker is open
+  }
+
+}
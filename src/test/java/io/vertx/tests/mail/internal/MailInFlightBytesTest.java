@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.internal;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.mail.MailAttachment;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.MailMessage;
+import io.vertx.ext.mail.impl.MailClientImpl;
+import io.vertx.ext.mail.impl.SMTPConnectionPool;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.tests.mail.client.SMTPTestWiser;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * test the max estimated size of the mails in flight in the connection pool
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailInFlightBytesTest extends SMTPTestWiser {
+
+  // an attachment of 3000 bytes is base64 encoded to 4000 bytes
+  private MailMessage largeMessage() {
+    return exampleMessage()
+      .setAttachment(MailAttachment.create()
+        .setContentType("application/octet-stream")
+        .setData(Buffer.buffer(new byte[3000])));
+  }
+
+  @Test
+  public void testMailsWait(TestContext testContext) {
+    this.testContext = testContext;
+    MailConfig config = configNoSSL().setMaxInFlightBytes(5000);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    SMTPConnectionPool pool = mailClient.getConnectionPool();
+    // the 1st mail resolves the hostname, the next ones acquire the budget right away
+    mailClient.sendMail(largeMessage()).onComplete(testContext.asyncAssertSuccess(r -> {
+      Future<?> f1 = mailClient.sendMail(largeMessage());
+      Future<?> f2 = mailClient.sendMail(largeMessage());
+      Future<?> f3 = mailClient.sendMail(largeMessage());
+      testContext.assertEquals(4000L, pool.inFlightBytes());
+      testContext.assertEquals(2, pool.inFlightBytesWaiters());
+      Future.all(f1, f2, f3).onComplete(testContext.asyncAssertSuccess(v -> {
+        testContext.assertEquals(0L, pool.inFlightBytes());
+        testContext.assertEquals(0, pool.inFlightBytesWaiters());
+        testContext.assertEquals(4, wiser.getMessages().size());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+    }));
+  }
+
+  @Test
+  public void testMailsFailFast(TestContext testContext) {
+    this.testContext = testContext;
+    MailConfig config = configNoSSL().setMaxInFlightBytes(5000).setFailFastOnMaxInFlightBytes(true);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    mailClient.sendMail(largeMessage()).onComplete(testContext.asyncAssertSuccess(r -> {
+      Future<?> f1 = mailClient.sendMail(largeMessage());
+      mailClient.sendMail(largeMessage()).onComplete(testContext.asyncAssertFailure(t ->
+        f1.onComplete(testContext.asyncAssertSuccess(v -> {
+          testContext.assertEquals(2, wiser.getMessages().size());
+          mailClient.close().onComplete(testContext.asyncAssertSuccess());
+        }))));
+    }));
+  }
+
+}
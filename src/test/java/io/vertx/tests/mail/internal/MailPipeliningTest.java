@@ -26,7 +26,9 @@ import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Tests SMTP Pipelining
@@ -273,4 +275,45 @@ public class MailPipeliningTest extends SMTPTestDummy {
 
   }
 
+  /**
+   * Test a large envelope, all the replies are delivered in one batch.
+   */
+  @Test
+  public void pipeLiningManyRCPTsTest(TestContext testContext) {
+    this.testContext = testContext;
+    final int count = 500;
+    final List<String> recipients = new ArrayList<>();
+    final String[] commands = new String[count + 2];
+    final String[] replies = new String[count + 2];
+    commands[0] = "MAIL FROM";
+    replies[0] = "250 2.1.0 Ok";
+    for (int i = 0; i < count; i++) {
+      recipients.add("user" + i + "@example.com");
+      commands[i + 1] = "RCPT TO:<user" + i + "@example.com>";
+      replies[i + 1] = i % 2 == 0 ? "250 2.1.5 Ok" : "550 5.1.1 Unknown user: user" + i + "@example.com";
+    }
+    commands[count + 1] = "DATA";
+    replies[count + 1] = "354 End data with <CR><LF>.<CR><LF>";
+    final String[][] dialogue = {
+      {"220 example.com ESMTP"},
+      {"EHLO"},
+      {"250-example.com\n" +
+        "250 PIPELINING"},
+      commands,
+      replies,
+      {"250 2.0.0 Ok: queued as ABCD"},
+      {"QUIT"},
+      {"221 2.0.0 Bye"}
+    };
+    smtpServer.setDialogueArray(dialogue);
+    MailMessage message = exampleMessage().setTo(recipients);
+    MailClient mailClient = MailClient.create(vertx, configNoSSL().setAllowRcptErrors(true));
+    mailClient.sendMail(message).onComplete(testContext.asyncAssertSuccess(mr -> {
+      testContext.assertEquals(count / 2, mr.getRecipients().size());
+      testContext.assertEquals("user0@example.com", mr.getRecipients().get(0));
+      testContext.assertEquals("user498@example.com", mr.getRecipients().get(count / 2 - 1));
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
 }
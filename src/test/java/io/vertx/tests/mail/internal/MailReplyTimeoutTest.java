@@ -0,0 +1,154 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.internal;
+
+import io.vertx.core.net.NetServer;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.SMTPTimeoutException;
+import io.vertx.ext.mail.impl.MailClientImpl;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.tests.mail.client.SMTPTestDummy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * test that a server which stops replying fails the mail with a timeout and that the connection is evicted from the pool
+ */
+@RunWith(VertxUnitRunner.class)
+public class MailReplyTimeoutTest extends SMTPTestDummy {
+
+  private MailConfig timeoutConfig() {
+    return configNoSSL()
+      .setGreetingTimeout(500)
+      .setEnvelopeTimeout(500)
+      .setEndOfDataTimeout(500)
+      .setReplyTimeoutUnit(TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  public void testGreetingTimeout(TestContext testContext) {
+    // the greeting is never terminated
+    smtpServer.setDialogue("220-example.com ESMTP");
+    testTimeout(testContext);
+  }
+
+  @Test
+  public void testEnvelopeTimeout(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM:");
+    testTimeout(testContext);
+  }
+
+  @Test
+  public void testEndOfDataTimeout(TestContext testContext) {
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>");
+    testTimeout(testContext);
+  }
+
+  /**
+   * the server stops reading the mail data, the write queue fills up and the data block timeout fails the mail
+   */
+  @Test
+  public void testDataBlockTimeout(TestContext testContext) {
+    smtpServer.stop();
+    NetServer server = vertx.createNetServer().connectHandler(socket -> {
+      AtomicBoolean data = new AtomicBoolean();
+      socket.handler(RecordParser.newDelimited("\r\n", buffer -> {
+        String line = buffer.toString();
+        if (data.get()) {
+          return;
+        }
+        if (line.startsWith("EHLO")) {
+          socket.write("250 example.com\r\n");
+        } else if (line.equals("DATA")) {
+          data.set(true);
+          socket.write("354 End data with <CR><LF>.<CR><LF>\r\n");
+          socket.pause();
+        } else {
+          socket.write("250 2.0.0 Ok\r\n");
+        }
+      }));
+      socket.write("220 example.com ESMTP\r\n");
+    });
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 256 * 1024; i++) {
+      text.append("a line of the mail text long enough to fill the write queue of the connection\n");
+    }
+    MailConfig config = configNoSSL().setDataBlockTimeout(500).setReplyTimeoutUnit(TimeUnit.MILLISECONDS);
+    server.listen(1587).onComplete(testContext.asyncAssertSuccess(s -> {
+      MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+      mailClient.sendMail(exampleMessage().setText(text.toString())).onComplete(testContext.asyncAssertFailure(t -> {
+        testContext.assertTrue(t instanceof SMTPTimeoutException, "unexpected exception " + t);
+        testContext.assertEquals(500L, ((SMTPTimeoutException) t).getTimeout());
+        testContext.assertEquals(0, mailClient.getConnectionPool().connCount());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess(v -> server.close().onComplete(testContext.asyncAssertSuccess())));
+      }));
+    }));
+  }
+
+  @Test
+  public void testDisabledTimeout(TestContext testContext) {
+    MailConfig config = timeoutConfig().setEndOfDataTimeout(0);
+    smtpServer.setDialogue("220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n" +
+        "250 SIZE 1000000",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>")
+      .setCloseWaitTime(2);
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      // the mail only fails when the server closes the connection
+      testContext.assertFalse(t instanceof SMTPTimeoutException);
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+  private void testTimeout(TestContext testContext) {
+    MailClientImpl mailClient = new MailClientImpl(vertx, timeoutConfig(), "foo");
+    long start = System.currentTimeMillis();
+    mailClient.sendMail(exampleMessage()).onComplete(testContext.asyncAssertFailure(t -> {
+      testContext.assertTrue(t instanceof SMTPTimeoutException, "unexpected exception " + t);
+      testContext.assertEquals(500L, ((SMTPTimeoutException) t).getTimeout());
+      testContext.assertTrue(System.currentTimeMillis() - start < 5000);
+      testContext.assertEquals(0, mailClient.getConnectionPool().connCount());
+      mailClient.close().onComplete(testContext.asyncAssertSuccess());
+    }));
+  }
+
+}
@@ -50,14 +50,19 @@ public class MultilineParserTest {
     final String ehloBanner = "220 hello from smtp server";
     final String oneLineResp = "250 2.1.0 OK";
     final AtomicBoolean init = new AtomicBoolean(false);
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
+        testContext.assertEquals(1, r.length);
+        SMTPResponse response = r[0];
+        String message = response.getValue();
         testContext.assertTrue(response.isStatusOk());
+        testContext.assertEquals(250, response.getReplyCode());
+        testContext.assertEquals("2.1.0", response.getEnhancedStatusCode());
         testContext.assertEquals(oneLineResp, message);
         async.countDown();
       }
@@ -83,14 +88,18 @@ public class MultilineParserTest {
     final String capaMessage = "250-smtp.gmail.com at your service, [209.132.188.80]\n" +
       "250-AUTH LOGIN PLAIN\n" +
       "250 PIPELINING";
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
+        testContext.assertEquals(1, r.length);
+        SMTPResponse response = r[0];
+        String message = response.getValue();
         testContext.assertTrue(response.isStatusOk());
+        testContext.assertEquals(3, response.getLines().size());
         testContext.assertEquals(capaMessage, message);
         Capabilities capa = new Capabilities();
         capa.parseCapabilities(message);
@@ -126,13 +135,16 @@ public class MultilineParserTest {
     final String expected = "250-smtp.gmail.com at your service, [209.132.188.80]\n" +
       "250-AUTH LOGIN PLAIN\n" +
       "250 PIPELINING";
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
+        testContext.assertEquals(1, r.length);
+        SMTPResponse response = r[0];
+        String message = response.getValue();
         testContext.assertTrue(response.isStatusOk());
         testContext.assertEquals(expected, message);
         Capabilities capa = new Capabilities();
@@ -164,23 +176,22 @@ public class MultilineParserTest {
     final String multilines = "250 2.1.0 OK1\r\n" +
       "250 2.1.1 OK2\r\n" +
       "250 2.1.2 OK3";
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
-        testContext.assertTrue(response.isStatusOk());
-        testContext.assertEquals(multilines, message);
-        String[] lines = message.split("\r\n");
-        for (String l: lines) {
-          System.out.println("Line:" + l + ":-");
+        testContext.assertEquals(3, r.length);
+        for (SMTPResponse response : r) {
+          testContext.assertTrue(response.isStatusOk());
+          testContext.assertEquals(250, response.getReplyCode());
         }
-        testContext.assertEquals(3, lines.length);
-        testContext.assertEquals("250 2.1.0 OK1", lines[0]);
-        testContext.assertEquals("250 2.1.1 OK2", lines[1]);
-        testContext.assertEquals("250 2.1.2 OK3", lines[2]);
+        testContext.assertEquals("250 2.1.0 OK1", r[0].getValue());
+        testContext.assertEquals("250 2.1.1 OK2", r[1].getValue());
+        testContext.assertEquals("250 2.1.2 OK3", r[2].getValue());
+        testContext.assertEquals("2.1.1", r[1].getEnhancedStatusCode());
         async.countDown();
       }
     };
@@ -204,20 +215,19 @@ public class MultilineParserTest {
     final String multilinesWithLF = "250-2.1.0 OK1\n250 2.1.0.1 OK1.1\r\n" +
       "250 2.1.1 OK2\r\n" +
       "250 2.1.2 OK3";
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
-        testContext.assertTrue(response.isStatusOk());
-        testContext.assertEquals(multilinesWithLF, message);
-        String[] lines = message.split("\r\n");
-        testContext.assertEquals(3, lines.length);
-        testContext.assertEquals("250-2.1.0 OK1\n250 2.1.0.1 OK1.1", lines[0]);
-        testContext.assertEquals("250 2.1.1 OK2", lines[1]);
-        testContext.assertEquals("250 2.1.2 OK3", lines[2]);
+        testContext.assertEquals(3, r.length);
+        testContext.assertTrue(r[0].isStatusOk());
+        testContext.assertEquals(2, r[0].getLines().size());
+        testContext.assertEquals("250-2.1.0 OK1\n250 2.1.0.1 OK1.1", r[0].getValue());
+        testContext.assertEquals("250 2.1.1 OK2", r[1].getValue());
+        testContext.assertEquals("250 2.1.2 OK3", r[2].getValue());
         async.countDown();
       }
     };
@@ -242,23 +252,19 @@ public class MultilineParserTest {
     final String multilinesWithLF = "250-2.1.0 OK1\r\n250 2.1.0.1 OK1.1\r\n" +
       "250 2.1.1 OK2\r\n" +
       "250 2.1.2 OK3";
-    final String expected = "250-2.1.0 OK1\n250 2.1.0.1 OK1.1\r\n" +
-      "250 2.1.1 OK2\r\n" +
-      "250 2.1.2 OK3";
-    Handler<Buffer> dataHandler = b -> {
+    Handler<SMTPResponse[]> dataHandler = r -> {
       if (!init.get()) {
-        testContext.assertEquals(ehloBanner, b.toString());
+        testContext.assertEquals(1, r.length);
+        testContext.assertEquals(ehloBanner, r[0].getValue());
+        testContext.assertEquals(220, r[0].getReplyCode());
         async.countDown();
       } else {
-        String message = b.toString();
-        SMTPResponse response = new SMTPResponse(message);
-        testContext.assertTrue(response.isStatusOk());
-        testContext.assertEquals(expected, message);
-        String[] lines = message.split("\r\n");
-        testContext.assertEquals(3, lines.length);
-        testContext.assertEquals("250-2.1.0 OK1\n250 2.1.0.1 OK1.1", lines[0]);
-        testContext.assertEquals("250 2.1.1 OK2", lines[1]);
-        testContext.assertEquals("250 2.1.2 OK3", lines[2]);
+        testContext.assertEquals(3, r.length);
+        testContext.assertTrue(r[0].isStatusOk());
+        testContext.assertEquals(2, r[0].getLines().size());
+        testContext.assertEquals("250-2.1.0 OK1\n250 2.1.0.1 OK1.1", r[0].getValue());
+        testContext.assertEquals("250 2.1.1 OK2", r[1].getValue());
+        testContext.assertEquals("250 2.1.2 OK3", r[2].getValue());
         async.countDown();
       }
     };
@@ -273,7 +279,7 @@ public class MultilineParserTest {
 
   @Test
   public void testLastLine(TestContext testContext) {
-    MultilineParser multilineParser = new MultilineParser(b -> logger.debug(b.toString()));
+    MultilineParser multilineParser = new MultilineParser(r -> logger.debug(r[0].getValue()));
     testContext.assertTrue(multilineParser.isFinalLine(Buffer.buffer("250 welcome OK")));
     testContext.assertFalse(multilineParser.isFinalLine(Buffer.buffer("250-welcome OK")));
 
@@ -286,5 +292,45 @@ public class MultilineParserTest {
     testContext.assertTrue(multilineParser.isFinalLine(Buffer.buffer("250-welcome OK\n250-2.1.0 OK\n250 2.1.1 OK")));
     testContext.assertTrue(multilineParser.isFinalLine(Buffer.buffer("250-welcome OK\r\n250-2.1.0 OK\r\n250 2.1.1 OK")));
 
+    testContext.assertTrue(multilineParser.isFinalLine(Buffer.buffer("250")));
+    testContext.assertTrue(multilineParser.isFinalLine(Buffer.buffer("abc-welcome OK")));
+
+  }
+
+  /**
+   * Tests pipelined responses arriving in fragments which are not aligned to the lines.
+   */
+  @Test
+  public void testFragmentedResponses(TestContext testContext) {
+    Async async = testContext.async();
+    MultilineParser multilineParser = new MultilineParser(r -> {
+      testContext.assertEquals(3, r.length);
+      testContext.assertEquals(250, r[0].getReplyCode());
+      testContext.assertEquals(550, r[1].getReplyCode());
+      testContext.assertEquals("5.1.1", r[1].getEnhancedStatusCode());
+      testContext.assertEquals("550 5.1.1 Unknown user", r[1].getValue());
+      testContext.assertEquals(354, r[2].getReplyCode());
+      testContext.assertTrue(r[2].isStatusContinue());
+      testContext.assertNull(r[2].getEnhancedStatusCode());
+      async.complete();
+    });
+    multilineParser.setExpected(3);
+    multilineParser.handle(Buffer.buffer("250 2.1.0 O"));
+    multilineParser.handle(Buffer.buffer("k\r\n550 5.1.1 Unknown"));
+    multilineParser.handle(Buffer.buffer(" user\r\n354 End data with <CR><LF>.<CR><LF>\r"));
+    multilineParser.handle(Buffer.buffer("\n"));
+  }
+
+  @Test
+  public void testMalformedResponse(TestContext testContext) {
+    Async async = testContext.async();
+    MultilineParser multilineParser = new MultilineParser(r -> {
+      testContext.assertEquals(1, r.length);
+      testContext.assertEquals(500, r[0].getReplyCode());
+      testContext.assertFalse(r[0].isStatusOk());
+      testContext.assertEquals("2x0-what", r[0].getValue());
+      async.complete();
+    });
+    multilineParser.handle(Buffer.buffer("2x0-what\r\n"));
   }
 }
@@ -1,6 +1,8 @@
 package io.vertx.tests.mail.internal;
 
 import io.vertx.core.Expectation;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.OpenOptions;
 import io.vertx.core.internal.logging.Logger;
 import io.vertx.core.internal.logging.LoggerFactory;
 import io.vertx.ext.mail.*;
@@ -9,12 +11,15 @@ import io.vertx.ext.mail.impl.SMTPResponse;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.tests.mail.client.SMTPTestWiser;
+import io.vertx.tests.mail.client.TestUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.mail.Address;
 import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RunWith(VertxUnitRunner.class)
@@ -312,4 +317,36 @@ public class SMTPSendMailTest extends SMTPTestWiser {
       }
     });
   }
+
+  /**
+   * The mail data is written in chunks, check that a message larger than one chunk, with lines starting with a
+   * dot and an attachment stream, is received unchanged.
+   */
+  @Test
+  public void testDataInChunks(TestContext testContext) {
+    this.testContext = testContext;
+    MailClient mailClient = mailClientLogin();
+
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append(i % 10 == 0 ? "." : "").append(strRepeat("x", 40)).append(i).append("\n");
+    }
+    final String text = sb.toString();
+    final String path = "logo-white-big.png";
+    final Buffer image = vertx.fileSystem().readFileBlocking(path);
+    MailMessage message = exampleMessage()
+      .setText(text)
+      .setAttachment(MailAttachment.create()
+        .setContentType("image/png")
+        .setName(path)
+        .setSize(image.length())
+        .setStream(vertx.fileSystem().openBlocking(path, new OpenOptions())));
+
+    testSuccess(mailClient, message, () -> {
+      final MimeMultipart multiPart = (MimeMultipart) wiser.getMessages().get(0).getMimeMessage().getContent();
+      testContext.assertEquals(2, multiPart.getCount());
+      testContext.assertEquals(text, TestUtils.conv2nl(TestUtils.inputStreamToString(multiPart.getBodyPart(0).getInputStream())));
+      testContext.assertTrue(Arrays.equals(image.getBytes(), TestUtils.inputStreamToBytes(multiPart.getBodyPart(1).getInputStream())));
+    });
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2011-2025 The original author or authors
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *       The Eclipse Public License is available at
+ *       http://www.eclipse.org/legal/epl-v10.html
+ *
+ *       The Apache License v2.0 is available at
+ *       http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.tests.mail.internal;
+
+import io.vertx.ext.mail.LoginOption;
+import io.vertx.ext.mail.MailConfig;
+import io.vertx.ext.mail.StartTLSOptions;
+import io.vertx.ext.mail.impl.MailClientImpl;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.tests.mail.client.SMTPTestDummy;
+import io.vertx.tests.mail.client.TestSmtpServer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+/**
+ * test that the connections of a pool resume the TLS session of the previous connections
+ * <p>
+ * TLSv1.2 is used, the resumption of a TLSv1.3 session does not reliably keep the session id the count relies on.
+ */
+@RunWith(VertxUnitRunner.class)
+public class TLSSessionResumptionTest extends SMTPTestDummy {
+
+  @Test
+  public void testSSLSessionResumed(TestContext testContext) {
+    smtpServer = new TestSmtpServer(vertx, true, null);
+    MailConfig config = new MailConfig("localhost", 1465, StartTLSOptions.DISABLED, LoginOption.DISABLED)
+      .setSsl(true)
+      .setTrustAll(true);
+    testResumption(testContext, config);
+  }
+
+  @Test
+  public void testStartTLSSessionResumed(TestContext testContext) {
+    smtpServer = new TestSmtpServer(vertx, false, null);
+    String[] dialogue = {"220 example.com ESMTP",
+      "EHLO",
+      "250-example.com\n"
+        + "250-SIZE 1000000\n"
+        + "250 STARTTLS",
+      "STARTTLS",
+      "220 2.0.0 Ready to start TLS",
+      "EHLO",
+      "250-example.com\n"
+        + "250 SIZE 1000000",
+      "MAIL FROM:",
+      "250 2.1.0 Ok",
+      "RCPT TO:",
+      "250 2.1.5 Ok",
+      "DATA",
+      "354 End data with <CR><LF>.<CR><LF>",
+      "250 2.0.0 Ok: queued as ABCDDEF0123456789",
+      "QUIT",
+      "221 2.0.0 Bye"};
+    smtpServer.setDialogue(dialogue);
+    MailConfig config = new MailConfig("localhost", 1587, StartTLSOptions.REQUIRED, LoginOption.DISABLED)
+      .setTrustAll(true);
+    testResumption(testContext, config);
+  }
+
+  private void testResumption(TestContext testContext, MailConfig config) {
+    // one connection per mail
+    config.setKeepAlive(false)
+      .setEnabledSecureTransportProtocols(Collections.singleton("TLSv1.2"));
+    MailClientImpl mailClient = new MailClientImpl(vertx, config, "foo");
+    mailClient.sendMail(exampleMessage())
+      .flatMap(r -> mailClient.sendMail(exampleMessage()))
+      .flatMap(r -> mailClient.sendMail(exampleMessage()))
+      .onComplete(testContext.asyncAssertSuccess(r -> {
+        testContext.assertEquals(3L, mailClient.getConnectionPool().tlsHandshakes());
+        testContext.assertEquals(2L, mailClient.getConnectionPool().tlsResumedHandshakes());
+        mailClient.close().onComplete(testContext.asyncAssertSuccess());
+      }));
+  }
+
+  @Override
+  protected void startSMTP() {
+    // the tests start a server with or without SSL
+  }
+
+}
@@ -18,6 +18,8 @@ package io.vertx.tests.mail.internal;
 
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
 import io.vertx.ext.mail.MailClient;
 import io.vertx.ext.mail.MailConfig;
 import io.vertx.ext.mail.MailMessage;
@@ -25,6 +27,8 @@ import io.vertx.ext.mail.MailResult;
 import io.vertx.ext.mail.impl.MailClientImpl;
 import io.vertx.ext.mail.impl.SMTPConnectionPool;
 
+import java.util.List;
+
 /**
  * MailClient providing a few internal getters for unit tests
  *
@@ -47,6 +51,16 @@ public class TestMailClient implements MailClient {
     return mailClient.sendMail(email);
   }
 
+  @Override
+  public Future<MailResult> sendRaw(String from, List<String> recipients, Buffer message) {
+    return mailClient.sendRaw(from, recipients, message);
+  }
+
+  @Override
+  public Future<MailResult> sendRawStream(String from, List<String> recipients, ReadStream<Buffer> message) {
+    return mailClient.sendRawStream(from, recipients, message);
+  }
+
   @Override
   public Future<Void> close() {
     return mailClient.close();